@@ -0,0 +1,147 @@
+/**
+ * AdaptiveConcurrencyLimiter - AIMD control of in-flight directory listings
+ * 
+ * Specifications:
+ * - Listing threads acquire a permit per directory; at most getLimit()
+ *   listings run at once, however many threads are available
+ * - Every WINDOW_LISTINGS completed listings the limit is adjusted:
+ *   - if the window's mean listing latency stays within LATENCY_TOLERANCE
+ *     times the baseline latency, the limit grows by one (additive
+ *     increase) up to the maximum
+ *   - otherwise the storage is saturated: more concurrency only queues
+ *     requests, so the limit is halved (multiplicative decrease)
+ * - The baseline is the lowest recent window mean: it drops to any lower
+ *   mean at once and otherwise rises by BASELINE_DRIFT per window, so a
+ *   lasting latency increase (slower storage, cold caches) becomes the new
+ *   normal instead of holding the limit at one forever
+ * - Tracks the limit at which the highest listing throughput was observed
+ * 
+ * SSDs keep latency flat up to high concurrency and settle near the
+ * maximum; network storage saturates early and settles low.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+class AdaptiveConcurrencyLimiter {
+    
+    /** Number of completed listings between adjustments */
+    static final int WINDOW_LISTINGS = 32;
+    
+    /** Latency growth over the baseline treated as saturation */
+    static final double LATENCY_TOLERANCE = 2.0;
+    
+    /** Factor by which the baseline relaxes towards recent latency each window */
+    static final double BASELINE_DRIFT = 1.1;
+    
+    private final int maxLimit;
+    
+    // All fields below are guarded by this
+    private int limit;
+    private int inFlight;
+    private int windowCount;
+    private long windowLatencyNanos;
+    private long windowStartNanos;
+    private double baselineLatencyNanos;
+    private double bestThroughput;
+    private int bestLimit;
+    private int adjustments;
+    
+    /**
+     * Constructor for AdaptiveConcurrencyLimiter
+     * Starts with a single permit
+     * 
+     * @param maxLimit the highest limit, normally the number of listing threads
+     * @throws IllegalArgumentException if maxLimit is not positive
+     */
+    AdaptiveConcurrencyLimiter(int maxLimit) {
+        if (maxLimit <= 0) {
+            throw new IllegalArgumentException("Maximum concurrency must be positive");
+        }
+        this.maxLimit = maxLimit;
+        this.limit = 1;
+        this.bestLimit = 1;
+        this.baselineLatencyNanos = Double.MAX_VALUE;
+        this.windowStartNanos = System.nanoTime();
+    }
+    
+    /**
+     * Waits until a listing may start
+     * 
+     * @throws InterruptedException if interrupted while waiting
+     */
+    synchronized void acquire() throws InterruptedException {
+        while (inFlight >= limit) {
+            wait();
+        }
+        inFlight++;
+    }
+    
+    /**
+     * Ends a listing and feeds its latency to the controller
+     * 
+     * @param latencyNanos how long the listing took
+     */
+    synchronized void release(long latencyNanos) {
+        inFlight--;
+        windowCount++;
+        windowLatencyNanos += latencyNanos;
+        
+        if (windowCount >= WINDOW_LISTINGS) {
+            adjust();
+        }
+        notifyAll();
+    }
+    
+    /**
+     * Applies the AIMD rule at the end of a window
+     */
+    private void adjust() {
+        long now = System.nanoTime();
+        double meanLatency = (double) windowLatencyNanos / windowCount;
+        double throughput = windowCount * 1_000_000_000.0 / Math.max(1, now - windowStartNanos);
+        
+        if (throughput > bestThroughput) {
+            bestThroughput = throughput;
+            bestLimit = limit;
+        }
+        
+        baselineLatencyNanos = Math.min(baselineLatencyNanos * BASELINE_DRIFT, meanLatency);
+        if (meanLatency > baselineLatencyNanos * LATENCY_TOLERANCE) {
+            limit = Math.max(1, limit / 2);
+        } else if (limit < maxLimit) {
+            limit++;
+        }
+        
+        adjustments++;
+        windowCount = 0;
+        windowLatencyNanos = 0;
+        windowStartNanos = now;
+    }
+    
+    /**
+     * Gets the current number of permitted concurrent listings
+     * 
+     * @return the current limit
+     */
+    synchronized int getLimit() {
+        return limit;
+    }
+    
+    /**
+     * Gets the limit at which the highest listing throughput was observed
+     * 
+     * @return the best limit, or 1 before the first window completes
+     */
+    synchronized int getBestLimit() {
+        return bestLimit;
+    }
+    
+    /**
+     * Gets the number of windows evaluated so far
+     * 
+     * @return adjustment count
+     */
+    synchronized int getAdjustments() {
+        return adjustments;
+    }
+}
\ No newline at end of file
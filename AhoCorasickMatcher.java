@@ -0,0 +1,195 @@
+import java.util.*;
+
+/**
+ * AhoCorasickMatcher - Finds which of many fragments occur in a file name
+ * 
+ * Specifications:
+ * - Built once per search from every queried fragment
+ * - Scans a name in a single pass, O(length + matches), however many
+ *   fragments there are
+ * - Immutable after construction, so matching threads can share it
+ * 
+ * The automaton is stored as a dense transition table over the characters
+ * that actually occur in the fragments; every other character maps to one
+ * shared class that always returns to the root. Failure links are resolved
+ * into the table at build time, so scanning never backtracks.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+class AhoCorasickMatcher {
+    
+    /** Character class of characters that occur in no fragment */
+    private static final int OTHER = 0;
+    
+    private final int[] asciiClasses;
+    private final Map<Character, Integer> otherClasses;
+    private final int classCount;
+    
+    // transitions[state * classCount + charClass] = next state
+    private final int[] transitions;
+    // Fragment ids ending at each state, and the nearest shorter suffix state with output
+    private final int[][] outputs;
+    private final int[] outputLinks;
+    private final List<List<String>> targets;
+    
+    /**
+     * Constructor for AhoCorasickMatcher
+     * 
+     * @param fragments the fragments to find, each mapped to the targets
+     *                  reported when it occurs
+     */
+    AhoCorasickMatcher(Map<String, List<String>> fragments) {
+        this.asciiClasses = new int[128];
+        this.otherClasses = new HashMap<>();
+        this.targets = new ArrayList<>(fragments.keySet().size());
+        
+        // Number the distinct characters of all fragments
+        int classes = 1;
+        for (String fragment : fragments.keySet()) {
+            for (int i = 0; i < fragment.length(); i++) {
+                char c = fragment.charAt(i);
+                if (c < 128) {
+                    if (asciiClasses[c] == OTHER) {
+                        asciiClasses[c] = classes++;
+                    }
+                } else if (!otherClasses.containsKey(c)) {
+                    otherClasses.put(c, classes++);
+                }
+            }
+        }
+        this.classCount = classes;
+        
+        // Build the trie; state 0 is the root
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new int[classCount]);
+        ends.add(new ArrayList<>(0));
+        
+        for (Map.Entry<String, List<String>> fragment : fragments.entrySet()) {
+            int state = 0;
+            String text = fragment.getKey();
+            for (int i = 0; i < text.length(); i++) {
+                int charClass = classOf(text.charAt(i));
+                if (trie.get(state)[charClass] == 0) {
+                    trie.get(state)[charClass] = trie.size();
+                    trie.add(new int[classCount]);
+                    ends.add(new ArrayList<>(0));
+                }
+                state = trie.get(state)[charClass];
+            }
+            ends.get(state).add(targets.size());
+            targets.add(fragment.getValue());
+        }
+        
+        int states = trie.size();
+        this.transitions = new int[states * classCount];
+        this.outputs = new int[states][];
+        this.outputLinks = new int[states];
+        int[] failure = new int[states];
+        
+        for (int state = 0; state < states; state++) {
+            List<Integer> ids = ends.get(state);
+            outputs[state] = new int[ids.size()];
+            for (int i = 0; i < ids.size(); i++) {
+                outputs[state][i] = ids.get(i);
+            }
+        }
+        
+        // Breadth-first: a state's failure target is always resolved before the state
+        Deque<Integer> queue = new ArrayDeque<>();
+        outputLinks[0] = -1;
+        for (int charClass = 0; charClass < classCount; charClass++) {
+            int child = trie.get(0)[charClass];
+            transitions[charClass] = child;
+            if (child != 0) {
+                failure[child] = 0;
+                outputLinks[child] = outputs[0].length > 0 ? 0 : -1;
+                queue.addLast(child);
+            }
+        }
+        
+        while (!queue.isEmpty()) {
+            int state = queue.pollFirst();
+            for (int charClass = 0; charClass < classCount; charClass++) {
+                int child = trie.get(state)[charClass];
+                int fallback = transitions[failure[state] * classCount + charClass];
+                
+                if (child == 0) {
+                    transitions[state * classCount + charClass] = fallback;
+                } else {
+                    transitions[state * classCount + charClass] = child;
+                    failure[child] = fallback;
+                    outputLinks[child] = outputs[fallback].length > 0 ? fallback : outputLinks[fallback];
+                    queue.addLast(child);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Maps a character to its transition table column
+     * 
+     * @param c the character
+     * @return its class, or OTHER if no fragment contains it
+     */
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClasses[c];
+        }
+        Integer charClass = otherClasses.get(c);
+        return charClass != null ? charClass : OTHER;
+    }
+    
+    /**
+     * Gets the targets of every fragment occurring in a name
+     * 
+     * @param name the name to scan
+     * @return the matching targets, each at most once, empty if none match
+     */
+    List<String> match(String name) {
+        List<String> result = null;
+        BitSet reported = null;
+        int state = 0;
+        
+        // The empty fragment, if queried, occurs in every name
+        if (outputs[0].length > 0) {
+            reported = new BitSet(targets.size());
+            result = new ArrayList<>(2);
+            collect(0, reported, result);
+        }
+        
+        for (int i = 0; i < name.length(); i++) {
+            state = transitions[state * classCount + classOf(name.charAt(i))];
+            int output = outputs[state].length > 0 ? state : outputLinks[state];
+            while (output > 0) {
+                if (reported == null) {
+                    reported = new BitSet(targets.size());
+                    result = new ArrayList<>(2);
+                }
+                collect(output, reported, result);
+                output = outputLinks[output];
+            }
+        }
+        
+        return result != null ? result : Collections.emptyList();
+    }
+    
+    /**
+     * Adds the targets of the fragments ending at a state
+     * Distinct fragments have distinct targets, so a fragment occurring
+     * twice in one name is skipped by its id in constant time
+     * 
+     * @param state the state
+     * @param reported ids of the fragments already reported for this name
+     * @param result targets collected so far
+     */
+    private void collect(int state, BitSet reported, List<String> result) {
+        for (int id : outputs[state]) {
+            if (!reported.get(id)) {
+                reported.set(id);
+                result.addAll(targets.get(id));
+            }
+        }
+    }
+}
\ No newline at end of file
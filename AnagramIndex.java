@@ -0,0 +1,126 @@
+import java.util.*;
+
+/**
+ * AnagramIndex - Groups a word list by letter signature for anagram lookup
+ * 
+ * Specifications:
+ * - Words with the same characters in any order share one signature:
+ *   their characters in ascending order
+ * - Finding the words that are permutations of a string is one hash
+ *   lookup on its signature; no permutations are generated
+ * - Signatures of Latin-1 words are built by counting characters, O(n),
+ *   other words by sorting, O(n log n)
+ * - Each distinct word is indexed once, in insertion order within its group
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 2
+ * @version 1.0
+ */
+public class AnagramIndex {
+    
+    private final Map<String, List<String>> groups;
+    private final Set<String> words;
+    
+    /**
+     * Constructor for an empty AnagramIndex
+     */
+    public AnagramIndex() {
+        this.groups = new HashMap<>();
+        this.words = new HashSet<>();
+    }
+    
+    /**
+     * Constructor for AnagramIndex over a word list
+     * 
+     * @param words the words to index
+     * @throws IllegalArgumentException if the list or any word is null
+     */
+    public AnagramIndex(Collection<String> words) {
+        this();
+        if (words == null) {
+            throw new IllegalArgumentException("Word list cannot be null");
+        }
+        for (String word : words) {
+            add(word);
+        }
+    }
+    
+    /**
+     * Adds a word to the index
+     * 
+     * @param word the word
+     * @return true if the word was not already indexed
+     * @throws IllegalArgumentException if word is null
+     */
+    public boolean add(String word) {
+        if (word == null) {
+            throw new IllegalArgumentException("Word cannot be null");
+        }
+        if (!words.add(word)) {
+            return false;
+        }
+        groups.computeIfAbsent(signature(word), k -> new ArrayList<>(1)).add(word);
+        return true;
+    }
+    
+    /**
+     * Gets the indexed words that are permutations of a string
+     * 
+     * @param str the string
+     * @return matching words, including str itself if indexed; empty if none
+     * @throws IllegalArgumentException if str is null
+     */
+    public List<String> anagramsOf(String str) {
+        if (str == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        List<String> group = groups.get(signature(str));
+        return group != null ? Collections.unmodifiableList(group) : Collections.emptyList();
+    }
+    
+    /**
+     * Gets the number of distinct words indexed
+     * 
+     * @return word count
+     */
+    public int size() {
+        return words.size();
+    }
+    
+    /**
+     * Gets the number of distinct signatures
+     * 
+     * @return group count
+     */
+    public int getGroupCount() {
+        return groups.size();
+    }
+    
+    /**
+     * Computes the signature shared by all permutations of a string
+     * 
+     * @param str the string
+     * @return the characters of str in ascending order
+     */
+    static String signature(String str) {
+        int[] counts = new int[256];
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c > 0xFF) {
+                char[] chars = str.toCharArray();
+                Arrays.sort(chars);
+                return new String(chars);
+            }
+            counts[c]++;
+        }
+        
+        // Counting sort: emit each Latin-1 character as often as it occurs
+        char[] sorted = new char[str.length()];
+        int position = 0;
+        for (int c = 0; c < counts.length; c++) {
+            for (int k = 0; k < counts[c]; k++) {
+                sorted[position++] = (char) c;
+            }
+        }
+        return new String(sorted);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+import java.io.File;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DirectoryListingCache - A bounded LRU cache of classified directory listings
+ * 
+ * Entries are keyed by absolute directory path and hold the directory's
+ * entries together with their kind (skipped, file, directory), so a hit
+ * avoids both the listing and the per-entry stat calls. An entry is used
+ * only while it is younger than the TTL and the directory's modification
+ * time is unchanged; adding, removing or renaming an entry changes the
+ * directory mtime, so stale listings are detected with a single stat.
+ * Listings classified with and without link following are never mixed.
+ * 
+ * The cache is thread-safe and can be shared between searchers, e.g. by a
+ * service that runs many overlapping searches.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+public class DirectoryListingCache {
+    
+    /**
+     * Listing - An immutable, classified directory listing
+     */
+    static final class Listing {
+        final File[] files;
+        final RecursiveFileSearch.EntryKind[] kinds;
+        final FileTime modified;
+        final boolean followLinks;
+        final long loadedAtNanos;
+        
+        Listing(File[] files, RecursiveFileSearch.EntryKind[] kinds, FileTime modified,
+                boolean followLinks) {
+            this.files = files;
+            this.kinds = kinds;
+            this.modified = modified;
+            this.followLinks = followLinks;
+            this.loadedAtNanos = System.nanoTime();
+        }
+    }
+    
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Listing> entries;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    /**
+     * Constructor for DirectoryListingCache
+     * 
+     * @param maxEntries maximum number of cached directories
+     * @param ttlMillis maximum age of a cached listing in milliseconds
+     * @throws IllegalArgumentException if maxEntries or ttlMillis is not positive
+     */
+    public DirectoryListingCache(int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<String, Listing>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Listing> eldest) {
+                if (size() > DirectoryListingCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * Gets a cached listing if it is still fresh and the directory is unchanged
+     * 
+     * @param dir the directory
+     * @param modified the directory's current modification time
+     * @param followLinks whether links must be classified by their targets
+     * @return the cached listing, or null on a miss
+     */
+    Listing get(File dir, FileTime modified, boolean followLinks) {
+        String key = dir.getAbsolutePath();
+        Listing listing;
+        
+        synchronized (entries) {
+            listing = entries.get(key);
+            if (listing != null && (System.nanoTime() - listing.loadedAtNanos > ttlNanos
+                    || !listing.modified.equals(modified) || listing.followLinks != followLinks)) {
+                entries.remove(key);
+                invalidations.increment();
+                listing = null;
+            }
+        }
+        
+        if (listing == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return listing;
+    }
+    
+    /**
+     * Stores a freshly read listing
+     * 
+     * @param dir the directory
+     * @param listing the classified listing, read after modified was taken
+     */
+    void put(File dir, Listing listing) {
+        synchronized (entries) {
+            entries.put(dir.getAbsolutePath(), listing);
+        }
+    }
+    
+    /**
+     * Removes every cached listing
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+    
+    /**
+     * Gets the number of cached directories
+     * 
+     * @return current cache size
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    /**
+     * Gets the number of lookups answered from the cache
+     * 
+     * @return hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    /**
+     * Gets the number of lookups that had to read the file system
+     * 
+     * @return miss count, including invalidated entries
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    /**
+     * Gets the number of entries dropped because they expired or the directory changed
+     * 
+     * @return invalidation count
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+    
+    /**
+     * Gets the number of entries dropped to respect the size bound
+     * 
+     * @return eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+    
+    /**
+     * Gets the fraction of lookups answered from the cache
+     * 
+     * @return hit ratio between 0 and 1
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
\ No newline at end of file
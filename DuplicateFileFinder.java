@@ -0,0 +1,292 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * DuplicateFileFinder - Finds files with identical content in a directory tree
+ * 
+ * Candidates are narrowed in stages so that most bytes are never read:
+ * 1. Group regular files by size (no file content read)
+ * 2. Within each size group, hash the first and last few KB of each file
+ * 3. Only for remaining collisions, hash the full file content
+ * 
+ * Files small enough to be covered entirely by the partial hash skip stage 3.
+ * Symbolic links are skipped, as in RecursiveFileSearch, and unreadable
+ * files or directories are recorded in a SearchErrorCollector.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+public class DuplicateFileFinder {
+    
+    /** Default number of bytes hashed from each end of a file in stage 2 */
+    public static final int DEFAULT_PARTIAL_BYTES = 4096;
+    
+    private static final int FULL_HASH_BUFFER_SIZE = 64 * 1024;
+    private static final String HASH_ALGORITHM = "SHA-256";
+    
+    private final int partialBytes;
+    private long bytesRead;
+    private int fullHashes;
+    private SearchErrorCollector errors;
+    
+    /**
+     * Constructor for DuplicateFileFinder
+     * 
+     * @param partialBytes number of bytes hashed from the start and end of each file
+     * @throws IllegalArgumentException if partialBytes is not positive
+     */
+    public DuplicateFileFinder(int partialBytes) {
+        if (partialBytes <= 0) {
+            throw new IllegalArgumentException("Partial hash size must be positive");
+        }
+        this.partialBytes = partialBytes;
+        this.errors = new SearchErrorCollector(SearchErrorCollector.DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Finds groups of files with identical content under a directory
+     * 
+     * Postconditions:
+     * - Each returned group holds two or more absolute paths, sorted
+     * - Groups are ordered by their first path
+     * 
+     * @param root the root directory to scan
+     * @return list of duplicate groups
+     */
+    public List<List<String>> findDuplicates(File root) {
+        bytesRead = 0;
+        fullHashes = 0;
+        errors = new SearchErrorCollector(SearchErrorCollector.DEFAULT_CAPACITY);
+        
+        // Stage 1: group by size
+        Map<Long, List<File>> bySize = new HashMap<>();
+        collectBySize(root, bySize);
+        
+        List<List<String>> duplicates = new ArrayList<>();
+        
+        for (Map.Entry<Long, List<File>> sizeGroup : bySize.entrySet()) {
+            List<File> candidates = sizeGroup.getValue();
+            if (candidates.size() < 2) {
+                continue;
+            }
+            
+            long size = sizeGroup.getKey();
+            if (size == 0) {
+                addGroup(duplicates, candidates);
+                continue;
+            }
+            
+            // Stage 2: group by hash of the first and last few KB
+            for (List<File> partialGroup : groupByHash(candidates, size, false)) {
+                if (size <= 2L * partialBytes) {
+                    // The partial hash already covered every byte
+                    addGroup(duplicates, partialGroup);
+                    continue;
+                }
+                
+                // Stage 3: full streaming hash for remaining collisions
+                for (List<File> fullGroup : groupByHash(partialGroup, size, true)) {
+                    addGroup(duplicates, fullGroup);
+                }
+            }
+        }
+        
+        duplicates.sort(Comparator.comparing(group -> group.get(0)));
+        return duplicates;
+    }
+    
+    /**
+     * Gets the number of file content bytes read by the last search
+     * 
+     * @return bytes read across all hashing stages
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+    
+    /**
+     * Gets the number of files whose full content was hashed by the last search
+     * 
+     * @return number of full-content hashes computed
+     */
+    public int getFullHashCount() {
+        return fullHashes;
+    }
+    
+    /**
+     * Gets the failures encountered by the last search
+     * 
+     * @return the error collector of the last search
+     */
+    public SearchErrorCollector getErrors() {
+        return errors;
+    }
+    
+    /**
+     * Recursively groups regular files by their size
+     * 
+     * @param currentDir the current directory being scanned
+     * @param bySize map from file size to files of that size
+     */
+    private void collectBySize(File currentDir, Map<Long, List<File>> bySize) {
+        File[] files;
+        try {
+            files = currentDir.listFiles();
+        } catch (SecurityException e) {
+            errors.record(SearchErrorCollector.Kind.DIRECTORY_ACCESS_DENIED, currentDir.getPath());
+            return;
+        }
+        
+        if (files == null) {
+            errors.record(SearchErrorCollector.Kind.LISTING_FAILED, currentDir.getPath());
+            return;
+        }
+        
+        for (File file : files) {
+            try {
+                if (Files.isSymbolicLink(file.toPath())) {
+                    continue;
+                }
+                
+                if (file.isDirectory()) {
+                    collectBySize(file, bySize);
+                } else if (file.isFile()) {
+                    bySize.computeIfAbsent(file.length(), k -> new ArrayList<>()).add(file);
+                }
+            } catch (SecurityException e) {
+                errors.record(SearchErrorCollector.Kind.ACCESS_DENIED, file.getPath());
+            }
+        }
+    }
+    
+    /**
+     * Splits same-sized candidates into groups sharing a content hash
+     * Groups with a single member are dropped
+     * 
+     * @param candidates files of the same size
+     * @param size the common file size
+     * @param fullContent whether to hash the whole file or only its ends
+     * @return groups of two or more files with equal hashes
+     */
+    private Collection<List<File>> groupByHash(List<File> candidates, long size, boolean fullContent) {
+        Map<ByteBuffer, List<File>> byHash = new HashMap<>();
+        
+        for (File file : candidates) {
+            try {
+                byte[] digest = fullContent ? hashFull(file) : hashEnds(file, size);
+                byHash.computeIfAbsent(ByteBuffer.wrap(digest), k -> new ArrayList<>()).add(file);
+            } catch (IOException | SecurityException e) {
+                errors.record(SearchErrorCollector.Kind.READ_FAILED, file.getPath());
+            }
+        }
+        
+        byHash.values().removeIf(group -> group.size() < 2);
+        return byHash.values();
+    }
+    
+    /**
+     * Hashes the first and last partialBytes of a file
+     * 
+     * @param file the file to hash
+     * @param size the file size
+     * @return digest of the sampled bytes
+     * @throws IOException if the file cannot be read
+     */
+    private byte[] hashEnds(File file, long size) throws IOException {
+        MessageDigest digest = newDigest();
+        
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, partialBytes));
+            readFully(channel, buffer, 0);
+            digest.update(buffer.array(), 0, buffer.position());
+            
+            long tailStart = Math.max(buffer.position(), size - partialBytes);
+            if (tailStart < size) {
+                buffer.clear().limit((int) (size - tailStart));
+                readFully(channel, buffer, tailStart);
+                digest.update(buffer.array(), 0, buffer.position());
+            }
+        }
+        
+        return digest.digest();
+    }
+    
+    /**
+     * Hashes the full content of a file with a streaming read
+     * 
+     * @param file the file to hash
+     * @return digest of the file content
+     * @throws IOException if the file cannot be read
+     */
+    private byte[] hashFull(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        fullHashes++;
+        
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(FULL_HASH_BUFFER_SIZE);
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                bytesRead += read;
+                digest.update(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+        }
+        
+        return digest.digest();
+    }
+    
+    /**
+     * Fills the buffer from a channel position, stopping early only at end of file
+     * 
+     * @param channel the channel to read
+     * @param buffer the buffer to fill up to its limit
+     * @param position the file position to start reading from
+     * @throws IOException if the read fails
+     */
+    private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                break;
+            }
+            position += read;
+            bytesRead += read;
+        }
+    }
+    
+    /**
+     * Adds a group of duplicate files to the result as sorted absolute paths
+     * 
+     * @param duplicates the result list
+     * @param group files with identical content
+     */
+    private static void addGroup(List<List<String>> duplicates, List<File> group) {
+        List<String> paths = new ArrayList<>(group.size());
+        for (File file : group) {
+            paths.add(file.getAbsolutePath());
+        }
+        Collections.sort(paths);
+        duplicates.add(paths);
+    }
+    
+    /**
+     * Creates a new message digest for content hashing
+     * 
+     * @return a fresh digest instance
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(HASH_ALGORITHM + " not available", e);
+        }
+    }
+}
\ No newline at end of file
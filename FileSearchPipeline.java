@@ -0,0 +1,326 @@
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * FileSearchPipeline - A pipelined producer/consumer traversal for RecursiveFileSearch
+ * 
+ * Stages:
+ * - Listing: producer threads take directories from the frontier, list them,
+ *   push sub-directories back onto the frontier and hand entries downstream
+ * - Matching: worker threads compare each listed entry against the queries
+ * - Aggregation: the calling thread drains matches into the searcher's results
+ * 
+ * The listing -> matching and matching -> aggregation queues are bounded, so
+ * a slow stage applies backpressure to the stage feeding it instead of
+ * buffering without limit. The directory frontier itself is unbounded because
+ * listing threads are both its producers and consumers.
+ * 
+ * With an AdaptiveConcurrencyLimiter, listingThreads is only an upper bound:
+ * the limiter decides how many listings actually run at once.
+ * 
+ * When the searcher reaches a query limit, aggregation returns at once and
+ * the listing and matching threads still running are interrupted; run
+ * returns once they have exited.
+ * 
+ * A listing or matching thread that fails records the failure and wakes the
+ * aggregation stage, which stops the pipeline and rethrows it from run.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+class FileSearchPipeline {
+    
+    /** Sentinel batch telling a matching thread that listing has finished */
+    private static final File[] END_OF_ENTRIES = new File[0];
+    
+    /** Sentinel match telling the aggregation stage that matching has finished */
+    private static final Match END_OF_MATCHES = new Match(null, null);
+    
+    /** Longest wait for stopped worker threads to exit */
+    static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    
+    private final RecursiveFileSearch searcher;
+    private final int listingThreads;
+    private final int matchingThreads;
+    private final AdaptiveConcurrencyLimiter limiter;
+    
+    private final BlockingDeque<File> frontier;
+    private final BlockingQueue<File[]> entries;
+    private final BlockingQueue<Match> matches;
+    
+    // Directories pushed to the frontier but not yet fully listed
+    private final AtomicInteger pendingDirectories;
+    private final AtomicInteger activeMatchers;
+    private final AtomicReference<Throwable> failure;
+    private volatile boolean listingDone;
+    
+    /**
+     * A single matched path travelling from the matching to the aggregation stage
+     */
+    private static final class Match {
+        final String targetFileName;
+        final String fullPath;
+        
+        Match(String targetFileName, String fullPath) {
+            this.targetFileName = targetFileName;
+            this.fullPath = fullPath;
+        }
+    }
+    
+    /**
+     * Constructor for FileSearchPipeline
+     * 
+     * @param searcher the searcher providing matching rules and receiving results
+     * @param listingThreads number of directory listing threads
+     * @param matchingThreads number of name matching threads
+     * @param queueCapacity capacity of each bounded inter-stage queue
+     * @param limiter controller of concurrent listings, or null to run
+     *                every listing thread freely
+     */
+    FileSearchPipeline(RecursiveFileSearch searcher, int listingThreads, int matchingThreads,
+            int queueCapacity, AdaptiveConcurrencyLimiter limiter) {
+        this.searcher = searcher;
+        this.listingThreads = listingThreads;
+        this.matchingThreads = matchingThreads;
+        this.limiter = limiter;
+        this.frontier = new LinkedBlockingDeque<>();
+        this.entries = new ArrayBlockingQueue<>(queueCapacity);
+        this.matches = new ArrayBlockingQueue<>(queueCapacity);
+        this.pendingDirectories = new AtomicInteger();
+        this.activeMatchers = new AtomicInteger(matchingThreads);
+        this.failure = new AtomicReference<>();
+    }
+    
+    /**
+     * Runs the pipeline from the given root directory
+     * The calling thread acts as the aggregation stage and returns once every
+     * match has been recorded in the searcher
+     * 
+     * @param root the root directory to search
+     * @throws InterruptedIOException if the calling thread is interrupted
+     * @throws RuntimeException the first failure of a listing or matching thread
+     */
+    void run(File root) throws InterruptedIOException {
+        ExecutorService workers = Executors.newFixedThreadPool(
+            listingThreads + matchingThreads, runnable -> {
+                Thread thread = new Thread(runnable, "file-search-pipeline");
+                thread.setDaemon(true);
+                return thread;
+            });
+        
+        try {
+            pendingDirectories.incrementAndGet();
+            frontier.add(root);
+            
+            for (int i = 0; i < listingThreads; i++) {
+                workers.execute(this::listDirectories);
+            }
+            for (int i = 0; i < matchingThreads; i++) {
+                workers.execute(this::matchEntries);
+            }
+            
+            aggregateMatches();
+            
+            Throwable cause = failure.get();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Search interrupted");
+        } finally {
+            shutdown(workers);
+        }
+    }
+    
+    /**
+     * Stops the listing and matching threads and waits for them to exit
+     * 
+     * Directory listing does not respond to interrupts, so a listing thread
+     * may still be inside readDirectory when the pipeline stops. Waiting
+     * keeps it from updating the searcher's metrics, error collector or
+     * listing cache after run returns, when the next search may already
+     * have reset them. Waits at most SHUTDOWN_TIMEOUT_SECONDS and keeps the
+     * caller's interrupt status.
+     * 
+     * @param workers the worker pool
+     */
+    private static void shutdown(ExecutorService workers) {
+        workers.shutdownNow();
+        boolean interrupted = Thread.interrupted();
+        try {
+            workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Listing stage: lists directories from the frontier until none are pending
+     */
+    private void listDirectories() {
+        try {
+            while (!listingDone && !searcher.isStoppedEarly()) {
+                File dir = frontier.pollFirst(10, TimeUnit.MILLISECONDS);
+                if (dir == null) {
+                    continue;
+                }
+                
+                File[] batch;
+                if (limiter != null) {
+                    limiter.acquire();
+                    long start = System.nanoTime();
+                    try {
+                        batch = listDirectory(dir);
+                    } finally {
+                        limiter.release(System.nanoTime() - start);
+                    }
+                } else {
+                    batch = listDirectory(dir);
+                }
+                
+                if (batch.length > 0) {
+                    // Blocks while the matching stage is behind
+                    entries.put(batch);
+                }
+                
+                // A failed or interrupted listing stops the whole pipeline, so
+                // only a directory handed downstream counts as done
+                if (pendingDirectories.decrementAndGet() == 0) {
+                    finishListing();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            fail(e);
+        }
+    }
+    
+    /**
+     * Lists one directory, queueing its sub-directories on the frontier
+     * 
+     * @param dir the directory to list
+     * @return the non-link entries of the directory
+     */
+    private File[] listDirectory(File dir) {
+        DirectoryListingCache.Listing listing = searcher.readDirectory(dir);
+        
+        // Base case: no files in directory or permission denied
+        if (listing == null) {
+            return END_OF_ENTRIES;
+        }
+        
+        File[] batch = new File[listing.files.length];
+        int kept = 0;
+        for (int i = 0; i < listing.files.length; i++) {
+            RecursiveFileSearch.EntryKind kind = listing.kinds[i];
+            
+            if (kind == RecursiveFileSearch.EntryKind.SKIPPED) {
+                continue;
+            }
+            
+            if (kind == RecursiveFileSearch.EntryKind.DIRECTORY) {
+                pendingDirectories.incrementAndGet();
+                frontier.addFirst(listing.files[i]);
+            }
+            batch[kept++] = listing.files[i];
+        }
+        
+        return kept == batch.length ? batch : Arrays.copyOf(batch, kept);
+    }
+    
+    /**
+     * Called once by the listing thread that drains the last pending directory
+     * 
+     * @throws InterruptedException if interrupted while signalling matchers
+     */
+    private void finishListing() throws InterruptedException {
+        listingDone = true;
+        for (int i = 0; i < matchingThreads; i++) {
+            entries.put(END_OF_ENTRIES);
+        }
+    }
+    
+    /**
+     * Matching stage: compares listed entries against the queries
+     */
+    private void matchEntries() {
+        try {
+            while (true) {
+                File[] batch = entries.take();
+                if (batch == END_OF_ENTRIES) {
+                    break;
+                }
+                
+                SearchMetrics metrics = searcher.getMetrics();
+                for (File file : batch) {
+                    long start = metrics != null ? System.nanoTime() : 0;
+                    for (String targetFileName : searcher.matchingTargets(file.getName())) {
+                        // Blocks while the aggregation stage is behind
+                        matches.put(new Match(targetFileName, file.getAbsolutePath()));
+                    }
+                    if (metrics != null) {
+                        metrics.recordTime(SearchMetrics.Phase.MATCHING, System.nanoTime() - start);
+                    }
+                }
+            }
+            
+            if (activeMatchers.decrementAndGet() == 0) {
+                matches.put(END_OF_MATCHES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            fail(e);
+        }
+    }
+    
+    /**
+     * Records the first worker failure and wakes the aggregation stage
+     * The other workers are interrupted once run returns
+     * 
+     * @param cause the failure
+     */
+    private void fail(Throwable cause) {
+        if (failure.compareAndSet(null, cause)) {
+            try {
+                matches.put(END_OF_MATCHES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Aggregation stage: records matches in the searcher until matching finishes
+     * 
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    private void aggregateMatches() throws InterruptedException {
+        while (true) {
+            Match match = matches.take();
+            if (match == END_OF_MATCHES) {
+                return;
+            }
+            searcher.recordMatch(match.targetFileName, match.fullPath);
+            
+            // A query limit was reached: run() stops the remaining workers
+            if (searcher.isStoppedEarly()) {
+                return;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+/**
+ * MatchListener - Receives each match as soon as a search records it
+ * 
+ * Listeners are always called from a single thread (the aggregation stage
+ * in pipelined searches), in the order matches are recorded.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+public interface MatchListener {
+    
+    /**
+     * Called once for every recorded match
+     * 
+     * @param targetFileName the queried name that matched
+     * @param fullPath the absolute path of the matching file
+     */
+    void onMatch(String targetFileName, String fullPath);
+}
\ No newline at end of file
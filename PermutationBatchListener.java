@@ -0,0 +1,26 @@
+/**
+ * PermutationBatchListener - Receives permutations a block at a time
+ * 
+ * Used by StringPermutations.generatePermutationBatches: permutations are
+ * packed as fixed-width records into one flat char[] block, so a consumer
+ * processes a whole block in a tight loop instead of taking one callback
+ * or String per permutation.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 2
+ * @version 1.0
+ */
+public interface PermutationBatchListener {
+    
+    /**
+     * Called with each filled block
+     * 
+     * Record r occupies batch[r * n] to batch[r * n + n - 1] for input
+     * length n. The returned block is filled next: return batch itself to
+     * reuse it, or a different block after handing batch to another thread.
+     * 
+     * @param batch the block holding the records
+     * @param count the number of records in the block, at least 1
+     * @return the block to fill next, at least n chars long
+     */
+    char[] onBatch(char[] batch, int count);
+}
\ No newline at end of file
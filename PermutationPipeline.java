@@ -0,0 +1,362 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * PermutationPipeline - Concurrent producer/consumer processing for StringPermutations
+ * 
+ * Stages:
+ * - Generation: producer threads claim prefixes (the first character of a
+ *   permutation) and generate the permutations of the remaining characters
+ *   into blocks of BATCH_PERMUTATIONS records
+ * - Processing: a pool of consumer threads takes blocks and passes every
+ *   permutation to the worker
+ * 
+ * Blocks travel through a bounded PermutationRingBuffer. When it is full
+ * producers back off (spin, then yield, then park), so memory stays bounded
+ * however slow the workers are. Processed blocks go back to a free ring and
+ * are reused, so at most ring capacity + producers + consumers blocks are
+ * ever allocated.
+ * 
+ * When a worker throws, or the run is cancelled, every thread stops and the
+ * failure is rethrown to the caller once the threads have exited.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 2
+ * @version 1.0
+ */
+class PermutationPipeline {
+    
+    /** Permutations per block */
+    static final int BATCH_PERMUTATIONS = 256;
+    
+    /** Longest pause of a waiting producer or consumer */
+    private static final long PARK_NANOS = 50_000;
+    
+    /** Sentinel block telling a consumer that generation has finished */
+    private static final Block END_OF_BLOCKS = new Block(new char[0]);
+    
+    /** Longest wait for stopped threads to exit */
+    static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    
+    private final boolean includeDuplicates;
+    private final int producerThreads;
+    private final int consumerThreads;
+    private final BooleanSupplier cancellation;
+    
+    private final PermutationRingBuffer<Block> filled;
+    private final PermutationRingBuffer<Block> free;
+    
+    private final AtomicInteger nextTask = new AtomicInteger();
+    private final AtomicInteger activeProducers;
+    private final AtomicInteger blocksAllocated = new AtomicInteger();
+    private final AtomicLong processed = new AtomicLong();
+    private final LongAdder producerStalls = new LongAdder();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean stopped;
+    
+    /**
+     * A block of permutations sharing one first character
+     */
+    private static final class Block {
+        final char[] suffixes;
+        char prefix;
+        int count;
+        
+        Block(char[] suffixes) {
+            this.suffixes = suffixes;
+        }
+    }
+    
+    /**
+     * Constructor for PermutationPipeline
+     * 
+     * @param includeDuplicates whether to include duplicate permutations
+     * @param producerThreads number of generating threads
+     * @param consumerThreads number of processing threads
+     * @param ringCapacity number of blocks the ring buffer holds, rounded up
+     *                     to a power of two
+     * @param cancellation returns true once the run should stop, or null for none
+     */
+    PermutationPipeline(boolean includeDuplicates, int producerThreads, int consumerThreads,
+            int ringCapacity, BooleanSupplier cancellation) {
+        this.includeDuplicates = includeDuplicates;
+        this.producerThreads = producerThreads;
+        this.consumerThreads = consumerThreads;
+        this.cancellation = cancellation;
+        this.filled = new PermutationRingBuffer<>(ringCapacity);
+        this.free = new PermutationRingBuffer<>(filled.capacity() + producerThreads + consumerThreads);
+        this.activeProducers = new AtomicInteger(producerThreads);
+    }
+    
+    /**
+     * Runs the pipeline over every permutation of a string
+     * The calling thread waits until every consumer has finished
+     * 
+     * @param str the input string
+     * @param worker called once per permutation, concurrently from the consumer threads
+     * @return number of permutations processed
+     * @throws CancellationException if the run is cancelled or the calling thread is interrupted
+     */
+    long run(String str, Consumer<String> worker) {
+        if (str.isEmpty()) {
+            worker.accept("");
+            processed.incrementAndGet();
+            return 1;
+        }
+        
+        // One task per first character: every position, or every distinct character
+        List<Character> prefixes = new ArrayList<>();
+        List<String> rests = new ArrayList<>();
+        Set<Character> seen = new HashSet<>();
+        for (int i = 0; i < str.length(); i++) {
+            if (includeDuplicates || seen.add(str.charAt(i))) {
+                prefixes.add(str.charAt(i));
+                rests.add(str.substring(0, i) + str.substring(i + 1));
+            }
+        }
+        
+        ExecutorService threads = Executors.newFixedThreadPool(
+            producerThreads + consumerThreads, runnable -> {
+                Thread thread = new Thread(runnable, "permutation-pipeline");
+                thread.setDaemon(true);
+                return thread;
+            });
+        CountDownLatch consumersDone = new CountDownLatch(consumerThreads);
+        
+        try {
+            for (int i = 0; i < producerThreads; i++) {
+                threads.execute(() -> produce(prefixes, rests, str.length() - 1));
+            }
+            for (int i = 0; i < consumerThreads; i++) {
+                threads.execute(() -> consume(worker, str.length(), consumersDone));
+            }
+            consumersDone.await();
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Permutation pipeline interrupted");
+        } finally {
+            stopped = true;
+            shutdown(threads);
+        }
+        
+        Throwable cause = failure.get();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return processed.get();
+    }
+    
+    /**
+     * Stops the pipeline threads and waits for them to exit
+     * 
+     * A consumer inside a slow worker call finishes that call before it
+     * sees the stop, so without waiting the worker could still be running
+     * after run has returned or rethrown. Waits at most
+     * SHUTDOWN_TIMEOUT_SECONDS and keeps the caller's interrupt status.
+     * 
+     * @param threads the pipeline threads
+     */
+    private static void shutdown(ExecutorService threads) {
+        threads.shutdownNow();
+        boolean interrupted = Thread.interrupted();
+        try {
+            threads.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Generation stage: claims prefixes until none are left
+     * 
+     * @param prefixes the first character of each task
+     * @param rests the characters each task permutes after its prefix
+     * @param suffixLength length of every rest
+     */
+    private void produce(List<Character> prefixes, List<String> rests, int suffixLength) {
+        try {
+            StringPermutations generator = new StringPermutations(includeDuplicates);
+            generator.setCancellation(this::isCancelled);
+            
+            int task;
+            while (!stopped && (task = nextTask.getAndIncrement()) < prefixes.size()) {
+                char prefix = prefixes.get(task);
+                Block[] current = {acquireBlock(suffixLength)};
+                current[0].prefix = prefix;
+                
+                generator.generatePermutationBatches(rests.get(task), current[0].suffixes, (batch, count) -> {
+                    current[0].count = count;
+                    put(current[0]);
+                    current[0] = acquireBlock(suffixLength);
+                    current[0].prefix = prefix;
+                    return current[0].suffixes;
+                });
+                free.offer(current[0]);
+            }
+        } catch (Throwable t) {
+            fail(t);
+        } finally {
+            if (activeProducers.decrementAndGet() == 0) {
+                for (int i = 0; i < consumerThreads; i++) {
+                    put(END_OF_BLOCKS);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Processing stage: passes every permutation of each block to the worker
+     * 
+     * @param worker the worker
+     * @param length length of every permutation
+     * @param done counted down when this consumer finishes
+     */
+    private void consume(Consumer<String> worker, int length, CountDownLatch done) {
+        try {
+            char[] record = new char[length];
+            while (true) {
+                Block block = take();
+                if (block == null || block == END_OF_BLOCKS) {
+                    break;
+                }
+                
+                record[0] = block.prefix;
+                for (int r = 0; r < block.count && !stopped; r++) {
+                    System.arraycopy(block.suffixes, r * (length - 1), record, 1, length - 1);
+                    worker.accept(new String(record));
+                }
+                processed.addAndGet(block.count);
+                free.offer(block);
+            }
+        } catch (Throwable t) {
+            fail(t);
+        } finally {
+            done.countDown();
+        }
+    }
+    
+    /**
+     * Reuses a processed block, or allocates one if none is free
+     * 
+     * @param suffixLength chars per record
+     * @return an empty block
+     */
+    private Block acquireBlock(int suffixLength) {
+        Block block = free.poll();
+        if (block == null) {
+            blocksAllocated.incrementAndGet();
+            block = new Block(new char[BATCH_PERMUTATIONS * suffixLength]);
+        }
+        block.count = 0;
+        return block;
+    }
+    
+    /**
+     * Adds a block to the ring, backing off while it is full
+     * 
+     * @param block the block
+     */
+    private void put(Block block) {
+        if (filled.offer(block)) {
+            return;
+        }
+        producerStalls.increment();
+        for (int attempt = 0; !stopped && !filled.offer(block); attempt++) {
+            backOff(attempt);
+        }
+    }
+    
+    /**
+     * Takes a block from the ring, backing off while it is empty
+     * 
+     * @return the block, or null if the run stopped
+     */
+    private Block take() {
+        for (int attempt = 0; !stopped; attempt++) {
+            Block block = filled.poll();
+            if (block != null) {
+                return block;
+            }
+            backOff(attempt);
+        }
+        return null;
+    }
+    
+    /**
+     * Waits before retrying: spins briefly, then yields, then parks
+     * 
+     * @param attempt number of failed attempts so far
+     */
+    private static void backOff(int attempt) {
+        if (attempt < 64) {
+            Thread.onSpinWait();
+        } else if (attempt < 128) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+    
+    /**
+     * Checks whether producers should stop generating
+     * 
+     * @return true if the run stopped or the caller cancelled it
+     */
+    private boolean isCancelled() {
+        return stopped || (cancellation != null && cancellation.getAsBoolean());
+    }
+    
+    /**
+     * Records the first failure and stops every thread
+     * 
+     * @param cause the failure
+     */
+    private void fail(Throwable cause) {
+        // Producers cancelled because another thread failed are not failures themselves
+        if (!(stopped && cause instanceof CancellationException)) {
+            failure.compareAndSet(null, cause);
+        }
+        stopped = true;
+    }
+    
+    /**
+     * Gets the number of blocks allocated
+     * 
+     * @return at most ring capacity + producers + consumers
+     */
+    int getBlocksAllocated() {
+        return blocksAllocated.get();
+    }
+    
+    /**
+     * Gets the number of times a producer found the ring full
+     * 
+     * @return stall count
+     */
+    long getProducerStalls() {
+        return producerStalls.sum();
+    }
+    
+    /**
+     * Gets the capacity of the ring buffer in blocks
+     * 
+     * @return the capacity
+     */
+    int getRingCapacity() {
+        return filled.capacity();
+    }
+}
\ No newline at end of file
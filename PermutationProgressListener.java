@@ -0,0 +1,21 @@
+/**
+ * PermutationProgressListener - Receives progress of a long permutation run
+ * 
+ * Called by the generators of StringPermutations every
+ * StringPermutations.CHECK_INTERVAL permutations and once when the run
+ * completes, on the generating thread.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 2
+ * @version 1.0
+ */
+public interface PermutationProgressListener {
+    
+    /**
+     * Called with the permutations produced so far
+     * 
+     * @param produced permutations produced by this run
+     * @param total permutations the run will produce, or -1 if the count
+     *              does not fit in a long
+     */
+    void onProgress(long produced, long total);
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * PermutationRingBuffer - A bounded lock-free multi-producer multi-consumer queue
+ * 
+ * Specifications:
+ * - Fixed capacity, rounded up to a power of two; offer fails instead of
+ *   growing when full, so callers apply their own backpressure
+ * - Never blocks: offer and poll return at once, retrying only when they
+ *   lose a compare-and-set race to another thread
+ * 
+ * Each slot carries a sequence number (Vyukov's bounded MPMC queue). A
+ * producer claims slot tail when its sequence equals tail and publishes by
+ * setting it to tail + 1; a consumer claims slot head when its sequence is
+ * head + 1 and frees it for the next lap by setting it to head + capacity.
+ * The volatile sequence write publishes the element to the other side.
+ * 
+ * @param <E> the element type
+ * @author Muhammad Hassaan Noor for Lab Task 2
+ * @version 1.0
+ */
+class PermutationRingBuffer<E> {
+    
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head;
+    private final AtomicLong tail;
+    
+    /**
+     * Constructor for PermutationRingBuffer
+     * 
+     * @param capacity minimum number of elements held, rounded up to a power of two
+     * @throws IllegalArgumentException if capacity is not positive or too large
+     */
+    PermutationRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    /**
+     * Adds an element if there is room
+     * 
+     * @param element the element, not null
+     * @return true if added, false if the buffer is full
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - position;
+            
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // The slot still holds the element from the previous lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+    
+    /**
+     * Removes the oldest element if there is one
+     * 
+     * @return the element, or null if the buffer is empty
+     */
+    E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - (position + 1);
+            
+            if (lag == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (lag < 0) {
+                // The slot has not been published yet
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+    
+    /**
+     * Gets the number of elements the buffer holds when full
+     * 
+     * @return the capacity, a power of two
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
\ No newline at end of file
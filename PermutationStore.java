@@ -0,0 +1,379 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * PermutationStore - Fixed-width permutation records kept outside the Java heap
+ * 
+ * Specifications:
+ * - Records are stored back to back, one byte per character for Latin-1
+ *   input and two (UTF-16) otherwise, so record i starts at i * width
+ * - Backed by direct ByteBuffers, or by a memory-mapped file that other
+ *   processes can open with open(Path)
+ * - Storage is split into segments of at most SEGMENT_BYTES holding whole
+ *   records, so stores can exceed the 2 GB limit of a single buffer
+ * - Random access by index with get, sequential reading with iterator
+ * 
+ * Mapped file layout: a HEADER_BYTES header (magic, version, record length
+ * in characters, bytes per character, record count) followed by the records.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 2
+ * @version 1.0
+ */
+public class PermutationStore implements Iterable<String>, Closeable {
+    
+    /** Maximum size of one backing buffer */
+    static final int SEGMENT_BYTES = 1 << 30;
+    
+    /** Size of the header at the start of a mapped file */
+    static final int HEADER_BYTES = 32;
+    
+    private static final int MAGIC = 0x50524D53;
+    private static final int VERSION = 1;
+    
+    private final int recordLength;
+    private final int bytesPerChar;
+    private final long count;
+    private final int recordsPerSegment;
+    private final ByteBuffer[] segments;
+    private final FileChannel channel;
+    private long appended;
+    
+    /**
+     * Constructor for PermutationStore
+     * 
+     * @param recordLength characters per record
+     * @param bytesPerChar 1 for Latin-1 records, 2 for UTF-16 records
+     * @param count number of records
+     * @param segments the backing buffers
+     * @param channel the mapped file, or null for direct buffers
+     */
+    private PermutationStore(int recordLength, int bytesPerChar, long count,
+            ByteBuffer[] segments, FileChannel channel) {
+        this.recordLength = recordLength;
+        this.bytesPerChar = bytesPerChar;
+        this.count = count;
+        this.recordsPerSegment = recordsPerSegment(recordLength * bytesPerChar);
+        this.segments = segments;
+        this.channel = channel;
+    }
+    
+    /**
+     * Allocates an empty store in direct (off-heap) memory
+     * 
+     * @param recordLength characters per record
+     * @param latin1 whether every character fits in one byte
+     * @param count number of records the store will hold
+     * @return the store, ready for records to be appended
+     * @throws IllegalArgumentException if a size is negative
+     */
+    static PermutationStore allocateDirect(int recordLength, boolean latin1, long count) {
+        int bytesPerChar = latin1 ? 1 : 2;
+        long[] sizes = segmentSizes(recordLength * bytesPerChar, count);
+        
+        ByteBuffer[] segments = new ByteBuffer[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect((int) sizes[i]);
+        }
+        return new PermutationStore(recordLength, bytesPerChar, count, segments, null);
+    }
+    
+    /**
+     * Creates a memory-mapped store file, replacing any existing file
+     * 
+     * @param file the file to create
+     * @param recordLength characters per record
+     * @param latin1 whether every character fits in one byte
+     * @param count number of records the store will hold
+     * @return the store, ready for records to be appended
+     * @throws IllegalArgumentException if a size is negative
+     * @throws IOException if the file cannot be created or mapped
+     */
+    static PermutationStore create(Path file, int recordLength, boolean latin1, long count)
+            throws IOException {
+        int bytesPerChar = latin1 ? 1 : 2;
+        long[] sizes = segmentSizes(recordLength * bytesPerChar, count);
+        
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(recordLength).putInt(bytesPerChar).putLong(count);
+            header.clear();
+            channel.write(header, 0);
+            
+            ByteBuffer[] segments = map(channel, FileChannel.MapMode.READ_WRITE, sizes);
+            return new PermutationStore(recordLength, bytesPerChar, count, segments, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Opens a store file written by another store, read-only
+     * 
+     * @param file the store file
+     * @return the store
+     * @throws IOException if the file cannot be read or is not a store file
+     */
+    public static PermutationStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Read until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a permutation store: " + file);
+            }
+            
+            int recordLength = header.getInt();
+            int bytesPerChar = header.getInt();
+            long count = header.getLong();
+            long[] sizes = segmentSizes(recordLength * bytesPerChar, count);
+            
+            long expected = HEADER_BYTES;
+            for (long size : sizes) {
+                expected += size;
+            }
+            if (channel.size() < expected) {
+                throw new IOException("Truncated permutation store: " + file);
+            }
+            
+            ByteBuffer[] segments = map(channel, FileChannel.MapMode.READ_ONLY, sizes);
+            PermutationStore store = new PermutationStore(recordLength, bytesPerChar, count, segments, channel);
+            store.appended = count;
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Maps consecutive segments after the header
+     * 
+     * @param channel the file
+     * @param mode the mapping mode
+     * @param sizes the segment sizes
+     * @return the mapped segments
+     * @throws IOException if mapping fails
+     */
+    private static ByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long[] sizes)
+            throws IOException {
+        ByteBuffer[] segments = new ByteBuffer[sizes.length];
+        long offset = HEADER_BYTES;
+        for (int i = 0; i < sizes.length; i++) {
+            segments[i] = channel.map(mode, offset, sizes[i]);
+            offset += sizes[i];
+        }
+        return segments;
+    }
+    
+    /**
+     * Computes how many whole records fit in one segment
+     * 
+     * @param width bytes per record
+     * @return records per segment, at least 1
+     */
+    private static int recordsPerSegment(int width) {
+        return width == 0 ? Integer.MAX_VALUE : Math.max(1, SEGMENT_BYTES / width);
+    }
+    
+    /**
+     * Splits count records of the given width into segment sizes
+     * 
+     * @param width bytes per record
+     * @param count number of records
+     * @return size in bytes of each segment
+     * @throws IllegalArgumentException if a size is negative
+     */
+    private static long[] segmentSizes(int width, long count) {
+        if (width < 0 || count < 0) {
+            throw new IllegalArgumentException("Store sizes cannot be negative");
+        }
+        
+        long perSegment = recordsPerSegment(width);
+        int segmentCount = (int) Math.max(1, (count + perSegment - 1) / perSegment);
+        long[] sizes = new long[segmentCount];
+        long remaining = count;
+        for (int i = 0; i < segmentCount; i++) {
+            long records = Math.min(perSegment, remaining);
+            sizes[i] = records * width;
+            remaining -= records;
+        }
+        return sizes;
+    }
+    
+    /**
+     * Appends the next record from Latin-1 bytes
+     * 
+     * @param bytes one byte per character
+     * @throws IllegalStateException if the store is full
+     */
+    void append(byte[] bytes) {
+        ByteBuffer segment = segmentFor(nextAppend());
+        int offset = offsetOf(appended);
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytesPerChar == 1) {
+                segment.put(offset + i, bytes[i]);
+            } else {
+                segment.putChar(offset + 2 * i, (char) (bytes[i] & 0xFF));
+            }
+        }
+        appended++;
+    }
+    
+    /**
+     * Appends the next record from characters
+     * 
+     * @param chars the record's characters
+     * @throws IllegalStateException if the store is full
+     */
+    void append(char[] chars) {
+        ByteBuffer segment = segmentFor(nextAppend());
+        int offset = offsetOf(appended);
+        for (int i = 0; i < chars.length; i++) {
+            if (bytesPerChar == 1) {
+                segment.put(offset + i, (byte) chars[i]);
+            } else {
+                segment.putChar(offset + 2 * i, chars[i]);
+            }
+        }
+        appended++;
+    }
+    
+    /**
+     * Checks that another record fits
+     * 
+     * @return the index of the next record
+     * @throws IllegalStateException if the store is full
+     */
+    private long nextAppend() {
+        if (appended >= count) {
+            throw new IllegalStateException("Store is full: " + count + " records");
+        }
+        return appended;
+    }
+    
+    /**
+     * Gets a record by index
+     * 
+     * @param index the record index
+     * @return the permutation stored at index
+     * @throws IndexOutOfBoundsException if index is not below size()
+     */
+    public String get(long index) {
+        if (index < 0 || index >= appended) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + appended);
+        }
+        
+        ByteBuffer segment = segmentFor(index);
+        int offset = offsetOf(index);
+        char[] chars = new char[recordLength];
+        for (int i = 0; i < recordLength; i++) {
+            chars[i] = bytesPerChar == 1
+                ? (char) (segment.get(offset + i) & 0xFF)
+                : segment.getChar(offset + 2 * i);
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * Gets the segment holding a record
+     * 
+     * @param index the record index
+     * @return the backing buffer
+     */
+    private ByteBuffer segmentFor(long index) {
+        return segments[(int) (index / recordsPerSegment)];
+    }
+    
+    /**
+     * Gets the byte offset of a record within its segment
+     * 
+     * @param index the record index
+     * @return the offset
+     */
+    private int offsetOf(long index) {
+        return (int) (index % recordsPerSegment) * recordLength * bytesPerChar;
+    }
+    
+    /**
+     * Gets the number of records stored
+     * 
+     * @return record count
+     */
+    public long size() {
+        return appended;
+    }
+    
+    /**
+     * Gets the number of characters in every record
+     * 
+     * @return record length
+     */
+    public int getRecordLength() {
+        return recordLength;
+    }
+    
+    /**
+     * Gets the number of off-heap bytes holding records
+     * 
+     * @return total record bytes
+     */
+    public long getByteSize() {
+        return count * recordLength * bytesPerChar;
+    }
+    
+    /**
+     * Creates a sequential reader over the records in index order
+     * 
+     * @return iterator over the stored permutations
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private long next;
+            
+            @Override
+            public boolean hasNext() {
+                return next < appended;
+            }
+            
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+    
+    /**
+     * Flushes a mapped store to its file and closes the file
+     * Direct buffers are released by the garbage collector once the store
+     * is unreachable
+     * 
+     * @throws IOException if the file cannot be flushed or closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            for (ByteBuffer segment : segments) {
+                if (segment instanceof MappedByteBuffer && !segment.isReadOnly()) {
+                    ((MappedByteBuffer) segment).force();
+                }
+            }
+            channel.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+/**
+ * PermutationSwapListener - Receives the swap that turns one permutation into the next
+ * 
+ * Used by the minimal-change generators of StringPermutations: the consumer
+ * holds the current arrangement and applies each swap itself, so every step
+ * costs O(1) instead of building a new string.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 2
+ * @version 1.0
+ */
+public interface PermutationSwapListener {
+    
+    /**
+     * Called once per step with the two positions exchanged
+     * 
+     * @param i the first swapped index
+     * @param j the second swapped index
+     */
+    void onSwap(int i, int j);
+}
\ No newline at end of file
@@ -1,150 +1,1351 @@
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * RecursiveFileSearch - A utility class for recursively searching files in directories
  * 
  * Specifications:
  * - Searches for one or multiple files in a directory tree
+ *   (iterative depth-first by default, or breadth-first with a bounded queue)
  * - Supports case-sensitive and case-insensitive search
+ *   (locale-independent case folding, precomputed once per search)
+ * - Matches whole names, or name fragments through an Aho-Corasick automaton
  * - Counts occurrences of each file
+ * - Optional limits (first match per name, at most N, all names found)
+ *   that stop the traversal early
  * - Handles symbolic links and permission errors gracefully
+ *   (links are skipped, or followed with cycle detection by file key)
+ *   (errors are collected per kind instead of printed)
+ * - Optional pipelined traversal with bounded queues between stages
+ *   (listing concurrency fixed, or tuned at runtime by an AIMD controller)
+ * - Searches several overlapping roots in one traversal
+ * - Detects files with identical content (duplicate detection mode)
+ * - Checkpoints long searches so they can resume after a restart
+ * - Optional metrics (counters, per-phase timings) exposed via JMX
+ * - Optional shared cache of directory listings validated by mtime
+ * - Streams matches as NDJSON, CSV or NUL-delimited output while searching
  * 
  * @author Muhammad Hassaan Noor for Lab Task 1
  * @version 1.0
  */
 public class RecursiveFileSearch {
     
+    /** Default capacity of the bounded queues used by the pipelined search */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    
+    /** Default number of directories listed between checkpoints */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+    
+    /** Default maximum number of directories queued by a breadth-first search */
+    public static final int DEFAULT_MAX_FRONTIER = 65536;
+    
+    /**
+     * How queried names are compared with entry names
+     */
+    public enum MatchMode {
+        /** The entry name must equal the queried name */
+        EXACT,
+        /** The entry name must contain the queried name as a fragment */
+        SUBSTRING
+    }
+    
+    /**
+     * Orders in which searchFiles visits the directory tree
+     */
+    public enum TraversalOrder {
+        /** Call-stack recursion, one Java frame per directory level */
+        RECURSIVE,
+        /** Explicit-stack depth-first walk, same result order as RECURSIVE */
+        DEPTH_FIRST,
+        /** Level-by-level walk over a bounded queue of directories */
+        BREADTH_FIRST
+    }
+    
     private boolean caseSensitive;
     private Map<String, List<String>> foundFiles;
     private Map<String, Integer> fileCount;
+    private Path checkpointFile;
+    private int checkpointInterval;
+    private SearchMetrics metrics;
+    private SearchErrorCollector errors;
+    private Map<String, List<String>> queryIndex;
+    private DirectoryListingCache listingCache;
+    private boolean followLinks;
+    private Set<String> visitedDirectories;
+    private MatchListener matchListener;
+    private boolean retainPaths;
+    private TraversalOrder traversalOrder;
+    private int maxFrontier;
+    private List<RootQuery> rootQueries;
+    private MatchMode matchMode;
+    private boolean adaptiveConcurrency;
+    private int maxMatchesPerName;
+    private int maxTotalMatches;
+    private boolean stopWhenAllFound;
+    private int totalMatches;
+    private int namesFound;
+    private int namesAtLimit;
+    private volatile boolean stopped;
+    private int listingConcurrency;
+    private AhoCorasickMatcher fragmentMatcher;
+    
+    /**
+     * Constructor for RecursiveFileSearch
+     * 
+     * @param caseSensitive whether the search should be case-sensitive
+     */
+    public RecursiveFileSearch(boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        this.foundFiles = new HashMap<>();
+        this.fileCount = new HashMap<>();
+        this.errors = new SearchErrorCollector(SearchErrorCollector.DEFAULT_CAPACITY);
+        this.queryIndex = new HashMap<>();
+        this.visitedDirectories = ConcurrentHashMap.newKeySet();
+        this.retainPaths = true;
+        this.traversalOrder = TraversalOrder.DEPTH_FIRST;
+        this.maxFrontier = DEFAULT_MAX_FRONTIER;
+        this.matchMode = MatchMode.EXACT;
+    }
+    
+    /**
+     * Searches for multiple files in a directory recursively
+     * 
+     * Preconditions:
+     * - directoryPath must not be null
+     * - fileNames must not be null or empty
+     * 
+     * Postconditions:
+     * - Returns a map with file names as keys and list of paths as values
+     * - Updates internal count of file occurrences
+     * 
+     * @param directoryPath the root directory to search
+     * @param fileNames list of file names to search for
+     * @return Map containing found files and their paths
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws IOException if directory access fails
+     */
+    public Map<String, List<String>> searchFiles(String directoryPath, List<String> fileNames) 
+            throws IllegalArgumentException, IOException {
+        
+        File directory = prepareSearch(directoryPath, fileNames);
+        
+        if (checkpointFile != null) {
+            Deque<File> frontier = new ArrayDeque<>();
+            frontier.push(directory);
+            searchWithCheckpoints(directory.getAbsolutePath(), fileNames, frontier);
+            return new HashMap<>(foundFiles);
+        }
+        
+        walk(directory);
+        
+        return new HashMap<>(foundFiles);
+    }
+    
+    /**
+     * Searches several, possibly overlapping, roots in a single traversal
+     * 
+     * Roots are normalized to absolute paths and a root lying inside another
+     * root, and reached from it without crossing a symbolic link, is not
+     * walked separately, so every physical directory is listed once. Each
+     * match is routed, as it is recorded, to every root that the current
+     * walk lists and that contains it and asked for that name.
+     * 
+     * Preconditions:
+     * - queriesByRoot must not be null or empty
+     * - every root must be an existing directory with a non-empty name list
+     * 
+     * Postconditions:
+     * - Each root's result map equals what searchFiles(root, names) returns,
+     *   up to the order of paths when roots overlap
+     * - getFileCount reports counts over the union of all roots
+     * - Checkpointing is not used by multi-root searches
+     * 
+     * @param queriesByRoot file names to search for, keyed by root directory
+     * @return result map of each root, keyed as in queriesByRoot
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws IOException if a root does not exist
+     */
+    public Map<String, Map<String, List<String>>> searchRoots(Map<String, List<String>> queriesByRoot)
+            throws IllegalArgumentException, IOException {
+        
+        if (queriesByRoot == null || queriesByRoot.isEmpty()) {
+            throw new IllegalArgumentException("Root list cannot be null or empty");
+        }
+        
+        // Merge roots that normalize to the same directory
+        Map<String, Set<String>> namesByRoot = new TreeMap<>();
+        Set<String> allNames = new LinkedHashSet<>();
+        for (Map.Entry<String, List<String>> query : queriesByRoot.entrySet()) {
+            List<String> fileNames = query.getValue();
+            if (fileNames == null || fileNames.isEmpty()) {
+                throw new IllegalArgumentException("File names list cannot be null or empty");
+            }
+            
+            String root = validateDirectory(query.getKey()).toPath()
+                .toAbsolutePath().normalize().toString();
+            namesByRoot.computeIfAbsent(root, key -> new LinkedHashSet<>()).addAll(fileNames);
+            allNames.addAll(fileNames);
+        }
+        
+        resetSearch(allNames);
+        
+        List<RootQuery> queries = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> root : namesByRoot.entrySet()) {
+            queries.add(new RootQuery(root.getKey(), Paths.get(root.getKey()).toRealPath(), root.getValue()));
+        }
+        
+        // Sorted order puts every root after the root containing it, though
+        // not always directly ("t/data-x" sorts between "t/data" and
+        // "t/data/projects"), so check against every root walked so far
+        List<RootQuery> walkedRoots = new ArrayList<>();
+        for (RootQuery query : queries) {
+            if (stopped) {
+                break;
+            }
+            boolean covered = false;
+            for (RootQuery walkedRoot : walkedRoots) {
+                if (isCoveredBy(query, walkedRoot)) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) {
+                walkedRoots.add(query);
+                
+                // Route matches only to the roots this walk really lists
+                List<RootQuery> routes = new ArrayList<>();
+                for (RootQuery other : queries) {
+                    if (isCoveredBy(other, query) || isCoveredBy(query, other)) {
+                        routes.add(other);
+                    }
+                }
+                rootQueries = routes;
+                walk(new File(query.root));
+            }
+        }
+        rootQueries = null;
+        
+        Map<String, Map<String, List<String>>> results = new LinkedHashMap<>();
+        for (String root : queriesByRoot.keySet()) {
+            String normalized = new File(root).toPath().toAbsolutePath().normalize().toString();
+            for (RootQuery query : queries) {
+                if (query.root.equals(normalized)) {
+                    Map<String, List<String>> rootResults = new HashMap<>();
+                    for (String fileName : queriesByRoot.get(root)) {
+                        rootResults.put(fileName, new ArrayList<>(query.found.get(fileName)));
+                    }
+                    results.put(root, rootResults);
+                }
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Checks whether a path lies inside (or is) a directory
+     * Both paths must be absolute and normalized
+     * 
+     * @param path the path to check
+     * @param directory the directory
+     * @return true if path is directory or one of its descendants
+     */
+    private static boolean isWithin(String path, String directory) {
+        if (!path.startsWith(directory)) {
+            return false;
+        }
+        return path.length() == directory.length()
+            || directory.endsWith(File.separator)
+            || path.startsWith(File.separator, directory.length());
+    }
+    
+    /**
+     * Checks whether walking one root also walks another
+     * 
+     * Unless links are followed, the walk reaches a nested root only
+     * through real directories, so the nested root's path must lie within
+     * the walked root and resolve to the same directory as that relative
+     * path taken from the walked root's real path; a symbolic link on the
+     * way makes them differ.
+     * 
+     * @param query the root to check
+     * @param walked a root that has been walked
+     * @return true if the walk of walked also lists query's tree
+     */
+    private boolean isCoveredBy(RootQuery query, RootQuery walked) {
+        if (!isWithin(query.root, walked.root)) {
+            return false;
+        }
+        if (followLinks) {
+            return true;
+        }
+        Path relative = Paths.get(walked.root).relativize(Paths.get(query.root));
+        return query.realRoot.equals(walked.realRoot.resolve(relative));
+    }
+    
+    /**
+     * RootQuery - The names asked for one root of a multi-root search and its results
+     */
+    private static final class RootQuery {
+        final String root;
+        final Path realRoot;
+        final Map<String, List<String>> found;
+        
+        RootQuery(String root, Path realRoot, Set<String> fileNames) {
+            this.root = root;
+            this.realRoot = realRoot;
+            this.found = new HashMap<>();
+            for (String fileName : fileNames) {
+                found.put(fileName, new ArrayList<>());
+            }
+        }
+    }
+    
+    /**
+     * Walks a directory tree in the configured traversal order
+     * 
+     * @param directory the root directory to search
+     */
+    private void walk(File directory) {
+        switch (traversalOrder) {
+            case RECURSIVE:
+                searchRecursive(directory);
+                break;
+            case BREADTH_FIRST:
+                searchBreadthFirst(directory);
+                break;
+            default:
+                searchDepthFirst(directory);
+                break;
+        }
+    }
+    
+    /**
+     * Enables periodic checkpointing for subsequent searchFiles calls
+     * 
+     * While enabled, searchFiles walks the tree with an explicit frontier and
+     * every intervalDirectories listed directories writes the frontier and the
+     * partial results to checkpointPath. The file is deleted once the search
+     * completes, so a remaining checkpoint always marks an unfinished search.
+     * 
+     * @param checkpointPath the checkpoint file, or null to disable checkpointing
+     * @param intervalDirectories number of directories listed between checkpoints
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public void enableCheckpoints(String checkpointPath, int intervalDirectories) {
+        if (intervalDirectories <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        
+        this.checkpointFile = checkpointPath == null ? null : Paths.get(checkpointPath);
+        this.checkpointInterval = intervalDirectories;
+    }
+    
+    /**
+     * Resumes an interrupted search from its last checkpoint
+     * 
+     * Preconditions:
+     * - checkpointPath must name a checkpoint written by a checkpointed search
+     * 
+     * Postconditions:
+     * - Returns the same results as an uninterrupted searchFiles call
+     * - Adopts the case sensitivity, match mode and follow-links setting
+     *   recorded in the checkpoint, and the directories already visited
+     * - Keeps checkpointing to the same file and deletes it on completion
+     * 
+     * @param checkpointPath the checkpoint file to resume from
+     * @return Map containing found files and their paths
+     * @throws IllegalArgumentException if checkpointPath is null or empty
+     * @throws IOException if the checkpoint cannot be read or the root no longer exists
+     */
+    public Map<String, List<String>> resumeSearch(String checkpointPath) 
+            throws IllegalArgumentException, IOException {
+        
+        if (checkpointPath == null || checkpointPath.trim().isEmpty()) {
+            throw new IllegalArgumentException("Checkpoint path cannot be null or empty");
+        }
+        
+        SearchCheckpoint checkpoint = SearchCheckpoint.read(Paths.get(checkpointPath));
+        validateDirectory(checkpoint.rootPath);
+        
+        caseSensitive = checkpoint.caseSensitive;
+        matchMode = checkpoint.matchMode;
+        followLinks = checkpoint.followLinks;
+        checkpointFile = Paths.get(checkpointPath);
+        if (checkpointInterval <= 0) {
+            checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+        }
+        
+        foundFiles.clear();
+        fileCount.clear();
+        
+        errors = new SearchErrorCollector(SearchErrorCollector.DEFAULT_CAPACITY);
+        if (metrics != null) {
+            metrics.reset();
+        }
+        
+        for (String fileName : checkpoint.fileNames) {
+            foundFiles.put(fileName, new ArrayList<>(checkpoint.foundFiles.get(fileName)));
+            fileCount.put(fileName, checkpoint.fileCount.get(fileName));
+        }
+        
+        buildQueryIndex(checkpoint.fileNames);
+        resetLimits();
+        rootQueries = null;
+        visitedDirectories = ConcurrentHashMap.newKeySet();
+        visitedDirectories.addAll(checkpoint.visitedDirectories);
+        
+        Deque<File> frontier = new ArrayDeque<>();
+        for (String pending : checkpoint.pendingDirectories) {
+            frontier.addLast(new File(pending));
+        }
+        
+        searchWithCheckpoints(checkpoint.rootPath, checkpoint.fileNames, frontier);
+        
+        return new HashMap<>(foundFiles);
+    }
+    
+    /**
+     * Searches for multiple files using a pipelined producer/consumer traversal
+     * 
+     * Directory listing, name matching and result aggregation run as separate
+     * stages connected by bounded queues (see FileSearchPipeline), so a slow
+     * stage applies backpressure instead of stalling the others.
+     * 
+     * Preconditions:
+     * - same as searchFiles
+     * - listingThreads, matchingThreads and queueCapacity must be positive
+     * 
+     * Postconditions:
+     * - Returns the same paths as searchFiles, possibly in a different order
+     * - Updates internal count of file occurrences
+     * - getListingConcurrency reports the listing concurrency used
+     * 
+     * @param directoryPath the root directory to search
+     * @param fileNames list of file names to search for
+     * @param listingThreads number of directory listing producer threads
+     *                       (the upper bound when adaptive concurrency is on)
+     * @param matchingThreads number of name matching threads
+     * @param queueCapacity capacity of each bounded queue between stages
+     * @return Map containing found files and their paths
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws IOException if directory access fails or the search is interrupted
+     */
+    public Map<String, List<String>> searchFilesPipelined(String directoryPath, List<String> fileNames,
+            int listingThreads, int matchingThreads, int queueCapacity)
+            throws IllegalArgumentException, IOException {
+        
+        if (listingThreads <= 0 || matchingThreads <= 0) {
+            throw new IllegalArgumentException("Thread counts must be positive");
+        }
+        
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        
+        File directory = prepareSearch(directoryPath, fileNames);
+        
+        AdaptiveConcurrencyLimiter limiter = adaptiveConcurrency
+            ? new AdaptiveConcurrencyLimiter(listingThreads) : null;
+        FileSearchPipeline pipeline = new FileSearchPipeline(this,
+            listingThreads, matchingThreads, queueCapacity, limiter);
+        try {
+            pipeline.run(directory);
+        } finally {
+            listingConcurrency = limiter != null ? limiter.getBestLimit() : listingThreads;
+        }
+        
+        return new HashMap<>(foundFiles);
+    }
+    
+    /**
+     * Validates search inputs and resets the result maps
+     * 
+     * @param directoryPath the root directory to search
+     * @param fileNames list of file names to search for
+     * @return the validated root directory
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws IOException if the directory does not exist
+     */
+    private File prepareSearch(String directoryPath, List<String> fileNames) 
+            throws IllegalArgumentException, IOException {
+        
+        // Input validation
+        if (directoryPath == null || directoryPath.trim().isEmpty()) {
+            throw new IllegalArgumentException("Directory path cannot be null or empty");
+        }
+        
+        if (fileNames == null || fileNames.isEmpty()) {
+            throw new IllegalArgumentException("File names list cannot be null or empty");
+        }
+        
+        File directory = validateDirectory(directoryPath);
+        resetSearch(fileNames);
+        
+        return directory;
+    }
+    
+    /**
+     * Resets the result maps, query index and per-search state
+     * 
+     * @param fileNames list of file names to search for
+     */
+    private void resetSearch(Collection<String> fileNames) {
+        // Initialize data structures
+        rootQueries = null;
+        foundFiles.clear();
+        fileCount.clear();
+        
+        for (String fileName : fileNames) {
+            foundFiles.put(fileName, new ArrayList<>());
+            fileCount.put(fileName, 0);
+        }
+        
+        buildQueryIndex(fileNames);
+        resetLimits();
+        visitedDirectories = ConcurrentHashMap.newKeySet();
+        errors = new SearchErrorCollector(SearchErrorCollector.DEFAULT_CAPACITY);
+        if (metrics != null) {
+            metrics.reset();
+        }
+    }
+    
+    /**
+     * Validates that a path names an existing directory
+     * 
+     * @param directoryPath the directory path
+     * @return the directory
+     * @throws IllegalArgumentException if the path is empty or not a directory
+     * @throws IOException if the directory does not exist
+     */
+    private File validateDirectory(String directoryPath) throws IllegalArgumentException, IOException {
+        if (directoryPath == null || directoryPath.trim().isEmpty()) {
+            throw new IllegalArgumentException("Directory path cannot be null or empty");
+        }
+        
+        File directory = new File(directoryPath);
+        
+        if (!directory.exists()) {
+            throw new IOException("Directory does not exist: " + directoryPath);
+        }
+        
+        if (!directory.isDirectory()) {
+            throw new IllegalArgumentException("Path is not a directory: " + directoryPath);
+        }
+        
+        return directory;
+    }
+    
+    /**
+     * Finds files with identical content anywhere under a directory
+     * 
+     * Files are grouped by size, then by a hash of their first and last few KB,
+     * and only the remaining collisions are fully hashed (see DuplicateFileFinder),
+     * so most file content is never read.
+     * 
+     * Preconditions:
+     * - directoryPath must name an existing directory
+     * 
+     * Postconditions:
+     * - Each group holds two or more absolute paths with identical content
+     * 
+     * @param directoryPath the root directory to scan
+     * @return list of duplicate groups
+     * @throws IllegalArgumentException if the path is invalid
+     * @throws IOException if the directory does not exist
+     */
+    public List<List<String>> findDuplicateFiles(String directoryPath) 
+            throws IllegalArgumentException, IOException {
+        File directory = validateDirectory(directoryPath);
+        
+        DuplicateFileFinder finder = new DuplicateFileFinder(DuplicateFileFinder.DEFAULT_PARTIAL_BYTES);
+        List<List<String>> duplicates = finder.findDuplicates(directory);
+        errors = finder.getErrors();
+        
+        return duplicates;
+    }
+    
+    /**
+     * Depth-first search over an explicit frontier, checkpointing periodically
+     * 
+     * @param rootPath absolute path of the search root
+     * @param fileNames list of file names to search for
+     * @param frontier directories still to be listed
+     * @throws IOException if a checkpoint cannot be written or removed
+     */
+    private void searchWithCheckpoints(String rootPath, List<String> fileNames, Deque<File> frontier) 
+            throws IOException {
+        int sinceCheckpoint = 0;
+        
+        while (!frontier.isEmpty() && !stopped) {
+            searchDirectory(frontier.pop(), frontier);
+            
+            if (++sinceCheckpoint >= checkpointInterval) {
+                writeCheckpoint(rootPath, fileNames, frontier);
+                sinceCheckpoint = 0;
+            }
+        }
+        
+        // Search completed: nothing left to resume
+        Files.deleteIfExists(checkpointFile);
+    }
+    
+    /**
+     * Writes the current frontier and partial results to the checkpoint file
+     * 
+     * @param rootPath absolute path of the search root
+     * @param fileNames list of file names to search for
+     * @param frontier directories still to be listed
+     * @throws IOException if the checkpoint cannot be written
+     */
+    private void writeCheckpoint(String rootPath, List<String> fileNames, Deque<File> frontier) 
+            throws IOException {
+        List<String> pending = new ArrayList<>(frontier.size());
+        for (File dir : frontier) {
+            pending.add(dir.getAbsolutePath());
+        }
+        
+        new SearchCheckpoint(rootPath, caseSensitive, matchMode, followLinks, visitedDirectories,
+            fileNames, pending, foundFiles, fileCount).write(checkpointFile);
+    }
+    
+    /**
+     * Lists a single directory, recording matches and pushing sub-directories
+     * onto the frontier so they are visited next, in listing order
+     * 
+     * @param currentDir the directory to list
+     * @param frontier stack of directories still to be listed
+     */
+    private void searchDirectory(File currentDir, Deque<File> frontier) {
+        DirectoryListingCache.Listing listing = readDirectory(currentDir);
+        
+        // Base case: no files in directory or permission denied
+        if (listing == null) {
+            return;
+        }
+        
+        List<File> subdirectories = new ArrayList<>();
+        
+        for (int i = 0; i < listing.files.length && !stopped; i++) {
+            EntryKind kind = listing.kinds[i];
+            
+            if (kind != EntryKind.SKIPPED) {
+                matchEntry(listing.files[i]);
+            }
+            
+            if (kind == EntryKind.DIRECTORY) {
+                subdirectories.add(listing.files[i]);
+            }
+        }
+        
+        for (int i = subdirectories.size() - 1; i >= 0; i--) {
+            frontier.push(subdirectories.get(i));
+        }
+    }
+    
+    /**
+     * Recursive helper method to search for files
+     * 
+     * @param currentDir the current directory being searched
+     */
+    private void searchRecursive(File currentDir) {
+        DirectoryListingCache.Listing listing = readDirectory(currentDir);
+        
+        // Base case: no files in directory or permission denied
+        if (listing == null) {
+            return;
+        }
+        
+        for (int i = 0; i < listing.files.length && !stopped; i++) {
+            EntryKind kind = listing.kinds[i];
+            
+            // Check if current file matches any search criteria
+            if (kind != EntryKind.SKIPPED) {
+                matchEntry(listing.files[i]);
+            }
+            
+            // Recursive case: if it's a directory, search inside
+            if (kind == EntryKind.DIRECTORY) {
+                searchRecursive(listing.files[i]);
+            }
+        }
+    }
+    
+    /**
+     * A directory being walked by searchDepthFirst: its listing and the next entry
+     */
+    private static final class DirectoryFrame {
+        final DirectoryListingCache.Listing listing;
+        int next;
+        
+        DirectoryFrame(DirectoryListingCache.Listing listing) {
+            this.listing = listing;
+        }
+    }
+    
+    /**
+     * Iterative depth-first search over an explicit stack of directory frames
+     * 
+     * Visits entries in exactly the order searchRecursive does, but the depth
+     * of the tree costs one small heap object per level instead of a Java
+     * stack frame, so arbitrarily deep trees cannot overflow the stack.
+     * 
+     * @param root the directory to search
+     */
+    private void searchDepthFirst(File root) {
+        Deque<DirectoryFrame> stack = new ArrayDeque<>();
+        DirectoryListingCache.Listing rootListing = readDirectory(root);
+        if (rootListing != null) {
+            stack.push(new DirectoryFrame(rootListing));
+        }
+        
+        while (!stack.isEmpty() && !stopped) {
+            DirectoryFrame frame = stack.peek();
+            
+            // Directory finished: resume its parent
+            if (frame.next == frame.listing.files.length) {
+                stack.pop();
+                continue;
+            }
+            
+            int i = frame.next++;
+            EntryKind kind = frame.listing.kinds[i];
+            
+            if (kind != EntryKind.SKIPPED) {
+                matchEntry(frame.listing.files[i]);
+            }
+            
+            // Descend before the remaining entries, as the recursion would
+            if (kind == EntryKind.DIRECTORY) {
+                DirectoryListingCache.Listing child = readDirectory(frame.listing.files[i]);
+                if (child != null) {
+                    stack.push(new DirectoryFrame(child));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Iterative breadth-first search over a bounded queue of directories
+     * 
+     * Directories are searched level by level. Once maxFrontier directories
+     * are queued, further sub-directories are searched depth-first in place
+     * instead of being queued, so a very wide tree cannot grow the queue
+     * without limit. Finds the same paths as searchRecursive in a different order.
+     * 
+     * @param root the directory to search
+     */
+    private void searchBreadthFirst(File root) {
+        Deque<File> queue = new ArrayDeque<>();
+        queue.addLast(root);
+        
+        while (!queue.isEmpty() && !stopped) {
+            DirectoryListingCache.Listing listing = readDirectory(queue.pollFirst());
+            
+            // Base case: no files in directory or permission denied
+            if (listing == null) {
+                continue;
+            }
+            
+            for (int i = 0; i < listing.files.length && !stopped; i++) {
+                EntryKind kind = listing.kinds[i];
+                
+                if (kind != EntryKind.SKIPPED) {
+                    matchEntry(listing.files[i]);
+                }
+                
+                if (kind == EntryKind.DIRECTORY) {
+                    if (queue.size() < maxFrontier) {
+                        queue.addLast(listing.files[i]);
+                    } else {
+                        searchDepthFirst(listing.files[i]);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Kinds of directory entries as seen by the traversal
+     */
+    enum EntryKind {
+        /** Symbolic links and entries that could not be accessed */
+        SKIPPED,
+        /** Regular files and other non-directory entries */
+        FILE,
+        /** Directories to descend into */
+        DIRECTORY
+    }
+    
+    /**
+     * Lists and classifies the entries of a directory
+     * 
+     * When a listing cache is set, an unchanged directory is answered from
+     * the cache with a single stat; otherwise the directory is listed and
+     * each entry classified, and the result cached for later searches.
+     * 
+     * @param currentDir the directory to read
+     * @return the classified listing, or null if the directory cannot be listed
+     */
+    DirectoryListingCache.Listing readDirectory(File currentDir) {
+        DirectoryListingCache cache = listingCache;
+        FileTime modified = null;
+        
+        if (cache != null || followLinks) {
+            BasicFileAttributes attributes = readAttributes(currentDir);
+            
+            // Each physical directory is listed once, however many links lead to it
+            if (followLinks && !markVisited(currentDir, attributes)) {
+                return null;
+            }
+            
+            modified = attributes != null ? attributes.lastModifiedTime() : null;
+        }
+        
+        if (cache != null && modified != null) {
+            DirectoryListingCache.Listing cached = cache.get(currentDir, modified, followLinks);
+            if (cached != null) {
+                if (metrics != null) {
+                    metrics.directoryListed(cached.files);
+                }
+                return cached;
+            }
+        }
+        
+        File[] files = listDirectory(currentDir);
+        if (files == null) {
+            return null;
+        }
+        
+        EntryKind[] kinds = new EntryKind[files.length];
+        for (int i = 0; i < files.length; i++) {
+            kinds[i] = classifyEntry(files[i]);
+        }
+        
+        DirectoryListingCache.Listing listing =
+            new DirectoryListingCache.Listing(files, kinds, modified, followLinks);
+        if (cache != null && modified != null) {
+            cache.put(currentDir, listing);
+        }
+        return listing;
+    }
+    
+    /**
+     * Reads the attributes of a directory, following links
+     * 
+     * @param dir the directory
+     * @return the attributes, or null if they cannot be read
+     */
+    private static BasicFileAttributes readAttributes(File dir) {
+        try {
+            return Files.readAttributes(dir.toPath(), BasicFileAttributes.class);
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Marks a directory as visited by its file key (device and inode)
+     * Falls back to the real path where the platform has no file keys
+     * Keys are stored as strings so checkpoints can persist them
+     * 
+     * @param dir the directory about to be listed
+     * @param attributes the directory attributes, or null if unreadable
+     * @return true if the directory had not been visited before
+     */
+    private boolean markVisited(File dir, BasicFileAttributes attributes) {
+        Object fileKey = attributes != null ? attributes.fileKey() : null;
+        String key;
+        if (fileKey != null) {
+            key = fileKey.toString();
+        } else {
+            try {
+                key = dir.toPath().toRealPath().toString();
+            } catch (IOException | SecurityException e) {
+                key = dir.getAbsolutePath();
+            }
+        }
+        return visitedDirectories.add(key);
+    }
+    
+    /**
+     * Lists the entries of a directory, recording metrics when enabled
+     * 
+     * @param currentDir the directory to list
+     * @return the directory entries, or null if the directory cannot be listed
+     */
+    File[] listDirectory(File currentDir) {
+        SearchMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        
+        File[] files;
+        try {
+            files = currentDir.listFiles();
+            if (files == null) {
+                errors.record(SearchErrorCollector.Kind.LISTING_FAILED, currentDir.getPath());
+            }
+        } catch (SecurityException e) {
+            errors.record(SearchErrorCollector.Kind.DIRECTORY_ACCESS_DENIED, currentDir.getPath());
+            files = null;
+        }
+        
+        if (metrics != null) {
+            metrics.recordTime(SearchMetrics.Phase.LISTING, System.nanoTime() - start);
+            metrics.directoryListed(files);
+        }
+        
+        return files;
+    }
+    
+    /**
+     * Determines whether an entry is skipped, a file, or a directory to descend into
+     * 
+     * @param file the directory entry
+     * @return the kind of entry
+     */
+    EntryKind classifyEntry(File file) {
+        SearchMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        int statCalls = 1;
+        
+        EntryKind kind;
+        try {
+            if (followLinks) {
+                // One stat through the link; cycles are cut by the visited set
+                kind = classifyFollowingLinks(file);
+            } else if (Files.isSymbolicLink(file.toPath())) {
+                // Skip symbolic links to avoid infinite loops
+                kind = EntryKind.SKIPPED;
+            } else {
+                statCalls++;
+                kind = file.isDirectory() ? EntryKind.DIRECTORY : EntryKind.FILE;
+            }
+        } catch (SecurityException e) {
+            // Skip files/directories without permission
+            errors.record(SearchErrorCollector.Kind.ACCESS_DENIED, file.getPath());
+            kind = EntryKind.SKIPPED;
+            if (metrics != null) {
+                metrics.errorOccurred();
+            }
+        }
+        
+        if (metrics != null) {
+            metrics.recordTime(SearchMetrics.Phase.STAT, System.nanoTime() - start);
+            metrics.statCalls(statCalls);
+        }
+        
+        return kind;
+    }
+    
+    /**
+     * Classifies an entry by the target of any symbolic link
+     * Broken links are treated as files, so their names can still match
+     * 
+     * @param file the directory entry
+     * @return FILE or DIRECTORY
+     */
+    private static EntryKind classifyFollowingLinks(File file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            return attributes.isDirectory() ? EntryKind.DIRECTORY : EntryKind.FILE;
+        } catch (IOException e) {
+            return EntryKind.FILE;
+        }
+    }
+    
+    /**
+     * Matches an entry against the query index, recording each match
+     * 
+     * @param file the directory entry
+     */
+    private void matchEntry(File file) {
+        SearchMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        
+        List<String> targets = matchingTargets(file.getName());
+        if (!targets.isEmpty()) {
+            String fullPath = file.getAbsolutePath();
+            for (String targetFileName : targets) {
+                recordMatch(targetFileName, fullPath);
+            }
+        }
+        
+        if (metrics != null) {
+            metrics.recordTime(SearchMetrics.Phase.MATCHING, System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Precomputes the lookup keys of the queried names once per search
+     * 
+     * Case-sensitive searches key each name by itself; case-insensitive
+     * searches key it by its folded form (see foldCase), so matching an
+     * entry costs a single hash lookup regardless of the number of queries
+     * or the case mode. Substring searches compile the same keys into an
+     * Aho-Corasick automaton, so each entry name is scanned once however
+     * many fragments are queried.
+     * 
+     * @param fileNames list of file names to search for
+     */
+    void buildQueryIndex(Collection<String> fileNames) {
+        queryIndex = new HashMap<>();
+        for (String fileName : fileNames) {
+            String key = caseSensitive ? fileName : foldCase(fileName);
+            queryIndex.computeIfAbsent(key, k -> new ArrayList<>(1)).add(fileName);
+        }
+        
+        fragmentMatcher = matchMode == MatchMode.SUBSTRING ? new AhoCorasickMatcher(queryIndex) : null;
+    }
     
     /**
-     * Constructor for RecursiveFileSearch
+     * Gets the queried names that an entry name matches
      * 
-     * @param caseSensitive whether the search should be case-sensitive
+     * @param fileName the actual file name
+     * @return the matching target names, empty if none match
      */
-    public RecursiveFileSearch(boolean caseSensitive) {
-        this.caseSensitive = caseSensitive;
-        this.foundFiles = new HashMap<>();
-        this.fileCount = new HashMap<>();
+    List<String> matchingTargets(String fileName) {
+        String key = caseSensitive ? fileName : foldCase(fileName);
+        if (fragmentMatcher != null) {
+            return fragmentMatcher.match(key);
+        }
+        
+        List<String> targets = queryIndex.get(key);
+        return targets != null ? targets : Collections.emptyList();
     }
     
     /**
-     * Searches for multiple files in a directory recursively
+     * Folds a name for locale-independent case-insensitive comparison
      * 
-     * Preconditions:
-     * - directoryPath must not be null
-     * - fileNames must not be null or empty
+     * Upper-cases then lower-cases with Locale.ROOT, which approximates
+     * Unicode full case folding: German sharp s matches "SS", Greek final
+     * sigma matches sigma, and results do not depend on the default locale
+     * (a Turkish default locale does not turn "I" into dotless i).
+     * As with equalsIgnoreCase, dotless i matches "I" and "i", while
+     * capital I with dot above folds to "i" plus a combining dot and so
+     * does not match plain "i". ASCII names take a single-pass fast path.
      * 
-     * Postconditions:
-     * - Returns a map with file names as keys and list of paths as values
-     * - Updates internal count of file occurrences
+     * @param name the name to fold
+     * @return the folded name
+     */
+    static String foldCase(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) {
+                return name.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+            }
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Records a matched path for a target file name
+     * Not thread-safe: callers must record from a single thread
      * 
-     * @param directoryPath the root directory to search
-     * @param fileNames list of file names to search for
-     * @return Map containing found files and their paths
-     * @throws IllegalArgumentException if inputs are invalid
-     * @throws IOException if directory access fails
+     * @param targetFileName the target file name that matched
+     * @param fullPath the absolute path of the matching file
      */
-    public Map<String, List<String>> searchFiles(String directoryPath, List<String> fileNames) 
-            throws IllegalArgumentException, IOException {
-        
-        // Input validation
-        if (directoryPath == null || directoryPath.trim().isEmpty()) {
-            throw new IllegalArgumentException("Directory path cannot be null or empty");
+    void recordMatch(String targetFileName, String fullPath) {
+        int count = fileCount.get(targetFileName);
+        if (stopped || (maxMatchesPerName > 0 && count >= maxMatchesPerName)) {
+            return;
         }
         
-        if (fileNames == null || fileNames.isEmpty()) {
-            throw new IllegalArgumentException("File names list cannot be null or empty");
+        if (retainPaths) {
+            foundFiles.get(targetFileName).add(fullPath);
         }
+        fileCount.put(targetFileName, ++count);
+        checkLimits(count);
         
-        File directory = new File(directoryPath);
-        
-        if (!directory.exists()) {
-            throw new IOException("Directory does not exist: " + directoryPath);
+        if (rootQueries != null) {
+            for (RootQuery query : rootQueries) {
+                List<String> paths = query.found.get(targetFileName);
+                if (paths != null && isWithin(fullPath, query.root)) {
+                    paths.add(fullPath);
+                }
+            }
         }
         
-        if (!directory.isDirectory()) {
-            throw new IllegalArgumentException("Path is not a directory: " + directoryPath);
+        if (matchListener != null) {
+            matchListener.onMatch(targetFileName, fullPath);
         }
         
-        // Initialize data structures
-        foundFiles.clear();
-        fileCount.clear();
+        if (metrics != null) {
+            metrics.matchRecorded(fullPath);
+        }
+    }
+    
+    /**
+     * Sets whether pipelined searches tune their listing concurrency at runtime
+     * 
+     * When enabled, searchFilesPipelined treats listingThreads as an upper
+     * bound and an AIMD controller (see AdaptiveConcurrencyLimiter) raises
+     * the number of in-flight listings while latency stays flat and halves
+     * it once the storage saturates.
+     * 
+     * @param adaptive whether to adapt listing concurrency
+     */
+    public void setAdaptiveConcurrency(boolean adaptive) {
+        this.adaptiveConcurrency = adaptive;
+    }
+    
+    /**
+     * Gets the listing concurrency of the last pipelined search
+     * 
+     * @return the concurrency with the best observed throughput when
+     *         adaptive, otherwise the number of listing threads; 0 before
+     *         any pipelined search
+     */
+    public int getListingConcurrency() {
+        return listingConcurrency;
+    }
+    
+    /**
+     * Sets how queried names are compared with entry names
+     * Takes effect from the next search
+     * 
+     * @param mode EXACT (the default) or SUBSTRING
+     * @throws IllegalArgumentException if mode is null
+     */
+    public void setMatchMode(MatchMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Match mode cannot be null");
+        }
+        this.matchMode = mode;
+    }
+    
+    /**
+     * Sets the order in which searchFiles walks the directory tree
+     * Checkpointed searches always use their own depth-first frontier
+     * 
+     * @param order the traversal order; DEPTH_FIRST by default
+     * @throws IllegalArgumentException if order is null
+     */
+    public void setTraversalOrder(TraversalOrder order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Traversal order cannot be null");
+        }
+        this.traversalOrder = order;
+    }
+    
+    /**
+     * Sets the maximum number of directories queued by a breadth-first search
+     * 
+     * @param maxDirectories the queue bound
+     * @throws IllegalArgumentException if maxDirectories is not positive
+     */
+    public void setMaxFrontierSize(int maxDirectories) {
+        if (maxDirectories <= 0) {
+            throw new IllegalArgumentException("Frontier size must be positive");
+        }
+        this.maxFrontier = maxDirectories;
+    }
+    
+    /**
+     * Recounts progress towards the query limits from the current counts
+     * Called when a search starts or resumes from a checkpoint
+     */
+    private void resetLimits() {
+        totalMatches = 0;
+        namesFound = 0;
+        namesAtLimit = 0;
+        stopped = false;
         
-        for (String fileName : fileNames) {
-            foundFiles.put(fileName, new ArrayList<>());
-            fileCount.put(fileName, 0);
+        for (int count : fileCount.values()) {
+            totalMatches += count;
+            if (count > 0) {
+                namesFound++;
+            }
+            if (maxMatchesPerName > 0 && count >= maxMatchesPerName) {
+                namesAtLimit++;
+            }
         }
         
-        // Start recursive search
-        searchRecursive(directory, fileNames);
+        stopped = limitsReached();
+    }
+    
+    /**
+     * Updates progress towards the query limits after a recorded match
+     * 
+     * @param count the new match count of the matched name
+     */
+    private void checkLimits(int count) {
+        totalMatches++;
+        if (count == 1) {
+            namesFound++;
+        }
+        if (count == maxMatchesPerName) {
+            namesAtLimit++;
+        }
         
-        return new HashMap<>(foundFiles);
+        if (limitsReached()) {
+            stopped = true;
+        }
     }
     
     /**
-     * Recursive helper method to search for files
+     * Checks whether any configured query limit has been reached
      * 
-     * @param currentDir the current directory being searched
-     * @param fileNames list of file names to search for
+     * @return true if the traversal can stop
      */
-    private void searchRecursive(File currentDir, List<String> fileNames) {
-        try {
-            File[] files = currentDir.listFiles();
-            
-            // Base case: no files in directory or permission denied
-            if (files == null) {
-                return;
-            }
-            
-            for (File file : files) {
-                try {
-                    // Skip symbolic links to avoid infinite loops
-                    if (Files.isSymbolicLink(file.toPath())) {
-                        continue;
-                    }
-                    
-                    // Check if current file matches any search criteria
-                    for (String targetFileName : fileNames) {
-                        if (matchesFileName(file.getName(), targetFileName)) {
-                            String fullPath = file.getAbsolutePath();
-                            foundFiles.get(targetFileName).add(fullPath);
-                            fileCount.put(targetFileName, fileCount.get(targetFileName) + 1);
-                        }
-                    }
-                    
-                    // Recursive case: if it's a directory, search inside
-                    if (file.isDirectory()) {
-                        searchRecursive(file, fileNames);
-                    }
-                    
-                } catch (SecurityException e) {
-                    // Skip files/directories without permission
-                    System.err.println("Access denied: " + file.getPath());
-                }
-            }
-        } catch (SecurityException e) {
-            System.err.println("Cannot access directory: " + currentDir.getPath());
+    private boolean limitsReached() {
+        int names = fileCount.size();
+        return (maxTotalMatches > 0 && totalMatches >= maxTotalMatches)
+            || (stopWhenAllFound && names > 0 && namesFound == names)
+            || (maxMatchesPerName > 0 && names > 0 && namesAtLimit == names);
+    }
+    
+    /**
+     * Sets the maximum number of matches recorded for each name
+     * 
+     * Further matches of a name are ignored; once every name has reached
+     * the limit the traversal stops. A limit of 1 finds the first match of
+     * each name.
+     * 
+     * @param max the per-name limit, or 0 for no limit
+     * @throws IllegalArgumentException if max is negative
+     */
+    public void setMaxMatchesPerName(int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("Match limit cannot be negative");
         }
+        this.maxMatchesPerName = max;
     }
     
     /**
-     * Checks if a file name matches the target based on case sensitivity
+     * Sets the maximum number of matches recorded over all names
+     * The traversal stops as soon as the limit is reached
      * 
-     * @param fileName the actual file name
-     * @param targetName the target file name
-     * @return true if names match, false otherwise
+     * @param max the total limit, or 0 for no limit
+     * @throws IllegalArgumentException if max is negative
      */
-    private boolean matchesFileName(String fileName, String targetName) {
-        if (caseSensitive) {
-            return fileName.equals(targetName);
-        } else {
-            return fileName.equalsIgnoreCase(targetName);
+    public void setMaxTotalMatches(int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("Match limit cannot be negative");
         }
+        this.maxTotalMatches = max;
+    }
+    
+    /**
+     * Sets whether the traversal stops once every name has been found at least once
+     * 
+     * @param stop whether to stop when all names are found
+     */
+    public void setStopWhenAllFound(boolean stop) {
+        this.stopWhenAllFound = stop;
+    }
+    
+    /**
+     * Checks whether the last search stopped early because a query limit was reached
+     * 
+     * @return true if part of the tree was not searched
+     */
+    public boolean isStoppedEarly() {
+        return stopped;
+    }
+    
+    /**
+     * Sets a listener notified of every match as soon as it is recorded
+     * 
+     * @param listener the listener, or null for none
+     */
+    public void setMatchListener(MatchListener listener) {
+        this.matchListener = listener;
+    }
+    
+    /**
+     * Sets whether matched paths are kept in the returned result map
+     * 
+     * Streaming consumers (see setMatchListener) can disable this so the
+     * searcher holds only counts; the returned lists are then empty while
+     * getFileCount still reports every match. Enabled by default.
+     * 
+     * @param retainPaths whether to keep matched paths
+     */
+    public void setRetainPaths(boolean retainPaths) {
+        this.retainPaths = retainPaths;
+    }
+    
+    /**
+     * Enables or disables following symbolic links in subsequent searches
+     * 
+     * When enabled, links to directories are descended into and every
+     * physical directory is tracked by its file key (device and inode) in a
+     * concurrent visited set, so linked trees are searched exactly once and
+     * link cycles terminate. When disabled (the default) links are skipped.
+     * A resumed search takes this setting and the visited set from its
+     * checkpoint instead.
+     * 
+     * @param followLinks whether to follow symbolic links
+     */
+    public void setFollowLinks(boolean followLinks) {
+        this.followLinks = followLinks;
+    }
+    
+    /**
+     * Sets the directory listing cache consulted by subsequent searches
+     * 
+     * The same cache may be shared by several searchers, so repeated and
+     * overlapping searches skip the file system for unchanged directories.
+     * 
+     * @param cache the listing cache, or null to always read the file system
+     */
+    public void setListingCache(DirectoryListingCache cache) {
+        this.listingCache = cache;
+    }
+    
+    /**
+     * Gets the directory listing cache consulted by searches
+     * 
+     * @return the listing cache, or null if none is set
+     */
+    public DirectoryListingCache getListingCache() {
+        return listingCache;
+    }
+    
+    /**
+     * Gets the failures encountered by the current or last search
+     * 
+     * Unreadable directories and inaccessible entries are skipped by the
+     * traversal and recorded here instead of being printed.
+     * 
+     * @return the error collector of the last search
+     */
+    public SearchErrorCollector getErrors() {
+        return errors;
+    }
+    
+    /**
+     * Enables or disables metrics collection for subsequent searches
+     * 
+     * When disabled (the default) the hot path only pays a null check.
+     * The returned object can be registered as a JMX MBean.
+     * 
+     * @param enabled whether to collect metrics
+     * @return the live metrics, or null when disabled
+     */
+    public SearchMetrics setMetricsEnabled(boolean enabled) {
+        if (!enabled) {
+            metrics = null;
+        } else if (metrics == null) {
+            metrics = new SearchMetrics();
+        }
+        return metrics;
+    }
+    
+    /**
+     * Gets the live metrics of the current or last search
+     * 
+     * @return the live metrics, or null when metrics are disabled
+     */
+    public SearchMetrics getMetrics() {
+        return metrics;
     }
     
     /**
@@ -182,28 +1383,168 @@ public class RecursiveFileSearch {
         }
     }
     
+    /**
+     * Prints a summary of traversal failures to stderr for command-line usage
+     * 
+     * @param errors the errors collected by a search
+     */
+    private static void displayErrors(SearchErrorCollector errors) {
+        if (errors.isEmpty()) {
+            return;
+        }
+        
+        System.err.println("\nSkipped due to errors: " + errors.getCounts());
+        for (SearchErrorCollector.SearchError error : errors.getErrors()) {
+            System.err.println("  - " + error);
+        }
+        if (errors.getDroppedCount() > 0) {
+            System.err.println("  ... and " + errors.getDroppedCount() + " more");
+        }
+    }
+    
+    /**
+     * Finds and prints groups of duplicate files for command-line usage
+     * 
+     * @param directory the root directory to scan
+     */
+    private static void displayDuplicates(String directory) {
+        try {
+            System.out.println("Scanning for duplicates in: " + directory);
+            
+            RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+            List<List<String>> groups = searcher.findDuplicateFiles(directory);
+            
+            System.out.println("\n=== Duplicate Files ===");
+            System.out.println("Groups: " + groups.size());
+            
+            for (List<String> group : groups) {
+                System.out.println("\nIdentical content (" + group.size() + " files):");
+                for (String path : group) {
+                    System.out.println("  - " + path);
+                }
+            }
+            
+            displayErrors(searcher.getErrors());
+            
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Resumes and prints an interrupted search for command-line usage
+     * 
+     * @param checkpoint the checkpoint file to resume from
+     */
+    private static void resumeFromCheckpoint(String checkpoint) {
+        try {
+            System.out.println("Resuming from checkpoint: " + checkpoint);
+            
+            RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+            searcher.enableCheckpoints(checkpoint, DEFAULT_CHECKPOINT_INTERVAL);
+            searcher.resumeSearch(checkpoint);
+            searcher.displayResults();
+            displayErrors(searcher.getErrors());
+            
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+    
     /**
      * Main method for command-line usage
      * 
-     * Usage: java RecursiveFileSearch <directory> <file1> [file2] ... [-i for case-insensitive]
+     * Usage: java RecursiveFileSearch <directory> <file1> [file2] ... [-i] [-L] [--contains] [--first] [--limit <n>] [--all-found] [--bfs] [--pipeline] [--adaptive] [--checkpoint <file>] [--progress] [--format=<fmt>]
+     *        java RecursiveFileSearch <directory> --duplicates
+     *        java RecursiveFileSearch --resume <checkpoint>
      * 
      * @param args command-line arguments
      */
     public static void main(String[] args) {
         if (args.length < 2) {
-            System.out.println("Usage: java RecursiveFileSearch <directory> <file1> [file2] ... [-i]");
+            System.out.println("Usage: java RecursiveFileSearch <directory> <file1> [file2] ... [-i] [-L] [--contains] [--first] [--limit <n>] [--all-found] [--bfs] [--pipeline] [--adaptive] [--checkpoint <file>] [--progress] [--format=<fmt>]");
             System.out.println("  -i: Enable case-insensitive search (optional)");
+            System.out.println("  -L: Follow symbolic links, visiting each directory once (optional)");
+            System.out.println("  --contains: Match names containing the given fragments (optional)");
+            System.out.println("  --first: Stop at the first match of each file (optional)");
+            System.out.println("  --limit <n>: Stop after n matches in total (optional)");
+            System.out.println("  --all-found: Stop once every file has been found (optional)");
+            System.out.println("  --bfs: Search breadth-first instead of depth-first (optional)");
+            System.out.println("  --pipeline: Use the pipelined multi-threaded traversal (optional)");
+            System.out.println("  --adaptive: Pipelined traversal with listing concurrency tuned to the storage (optional)");
+            System.out.println("       java RecursiveFileSearch <directory> --duplicates");
+            System.out.println("  --duplicates: Report groups of files with identical content");
+            System.out.println("  --checkpoint <file>: Periodically save progress to <file>, not with --pipeline or --adaptive (optional)");
+            System.out.println("  --progress: Print live search metrics to stderr (optional)");
+            System.out.println("  --format=ndjson|csv|null-delimited: Stream matches as they are found (optional)");
+            System.out.println("       java RecursiveFileSearch --resume <checkpoint>");
+            System.out.println("  --resume: Continue an interrupted search from its checkpoint");
+            return;
+        }
+        
+        if (args[0].equals("--resume")) {
+            resumeFromCheckpoint(args[1]);
             return;
         }
         
         // Parse arguments
         String directory = args[0];
+        
+        if (args[1].equals("--duplicates")) {
+            displayDuplicates(directory);
+            return;
+        }
+        
         List<String> fileNames = new ArrayList<>();
         boolean caseSensitive = true;
+        boolean pipelined = false;
+        boolean adaptive = false;
+        String checkpoint = null;
+        boolean progress = false;
+        boolean followLinks = false;
+        boolean breadthFirst = false;
+        boolean contains = false;
+        boolean first = false;
+        int limit = 0;
+        boolean allFound = false;
+        SearchResultWriter.Format format = null;
         
         for (int i = 1; i < args.length; i++) {
             if (args[i].equals("-i")) {
                 caseSensitive = false;
+            } else if (args[i].equals("-L")) {
+                followLinks = true;
+            } else if (args[i].equals("--contains")) {
+                contains = true;
+            } else if (args[i].equals("--first")) {
+                first = true;
+            } else if (args[i].equals("--limit") && i + 1 < args.length) {
+                try {
+                    limit = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.out.println("Error: Invalid limit: " + args[i]);
+                    return;
+                }
+            } else if (args[i].equals("--all-found")) {
+                allFound = true;
+            } else if (args[i].equals("--bfs")) {
+                breadthFirst = true;
+            } else if (args[i].equals("--pipeline")) {
+                pipelined = true;
+            } else if (args[i].equals("--adaptive")) {
+                pipelined = true;
+                adaptive = true;
+            } else if (args[i].equals("--checkpoint") && i + 1 < args.length) {
+                checkpoint = args[++i];
+            } else if (args[i].equals("--progress")) {
+                progress = true;
+            } else if (args[i].startsWith("--format=")) {
+                try {
+                    format = SearchResultWriter.Format.parse(args[i].substring("--format=".length()));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Error: " + e.getMessage());
+                    return;
+                }
             } else {
                 fileNames.add(args[i]);
             }
@@ -214,18 +1555,87 @@ public class RecursiveFileSearch {
             return;
         }
         
+        // Pipelined traversals are not checkpointed
+        if (checkpoint != null && pipelined) {
+            System.out.println("Error: --checkpoint cannot be combined with --pipeline or --adaptive");
+            return;
+        }
+        
         // Perform search
         try {
             RecursiveFileSearch searcher = new RecursiveFileSearch(caseSensitive);
             
-            System.out.println("Searching in: " + directory);
-            System.out.println("Files to find: " + fileNames);
-            System.out.println("Case-sensitive: " + caseSensitive);
+            // Machine-readable output must not be mixed with the human banner
+            SearchResultWriter writer = null;
+            if (format != null) {
+                writer = new SearchResultWriter(format, System.out);
+                searcher.setMatchListener(writer);
+                searcher.setRetainPaths(false);
+            } else {
+                System.out.println("Searching in: " + directory);
+                System.out.println("Files to find: " + fileNames);
+                System.out.println("Case-sensitive: " + caseSensitive);
+            }
             
-            searcher.searchFiles(directory, fileNames);
-            searcher.displayResults();
+            searcher.setFollowLinks(followLinks);
+            if (contains) {
+                searcher.setMatchMode(MatchMode.SUBSTRING);
+            }
+            if (first) {
+                searcher.setMaxMatchesPerName(1);
+            }
+            searcher.setMaxTotalMatches(limit);
+            searcher.setStopWhenAllFound(allFound);
+            if (breadthFirst) {
+                searcher.setTraversalOrder(TraversalOrder.BREADTH_FIRST);
+            }
+            if (checkpoint != null) {
+                searcher.enableCheckpoints(checkpoint, DEFAULT_CHECKPOINT_INTERVAL);
+            }
             
-        } catch (IllegalArgumentException | IOException e) {
+            ScheduledExecutorService reporter = null;
+            if (progress) {
+                SearchMetrics metrics = searcher.setMetricsEnabled(true);
+                reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "search-progress");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                reporter.scheduleAtFixedRate(
+                    () -> System.err.println("Progress: " + metrics.snapshot()),
+                    1, 1, TimeUnit.SECONDS);
+            }
+            
+            try {
+                if (pipelined) {
+                    int processors = Runtime.getRuntime().availableProcessors();
+                    // Adaptive mode only needs an upper bound; listings are I/O-bound
+                    int listingThreads = adaptive ? 4 * processors : processors;
+                    searcher.setAdaptiveConcurrency(adaptive);
+                    searcher.searchFilesPipelined(directory, fileNames,
+                        listingThreads, Math.max(1, processors / 2), DEFAULT_QUEUE_CAPACITY);
+                    System.err.println("Listing concurrency: " + searcher.getListingConcurrency());
+                } else {
+                    searcher.searchFiles(directory, fileNames);
+                }
+            } finally {
+                if (reporter != null) {
+                    reporter.shutdownNow();
+                }
+            }
+            
+            if (writer != null) {
+                writer.finish(searcher, fileNames);
+            } else {
+                searcher.displayResults();
+            }
+            displayErrors(searcher.getErrors());
+            
+            if (progress) {
+                System.err.println("\nMetrics: " + searcher.getMetrics().snapshot());
+            }
+            
+        } catch (IllegalArgumentException | IOException | UncheckedIOException e) {
             System.err.println("Error: " + e.getMessage());
         }
     }
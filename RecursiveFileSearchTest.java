@@ -469,4 +469,1644 @@ public class RecursiveFileSearchTest {
                 "Path should point to existing file");
         }
     }
+    
+    // ==================== Pipelined Search Tests ====================
+    
+    @Test
+    @DisplayName("Test pipelined search finds same paths as recursive search")
+    void testPipelinedMatchesRecursive() throws IOException {
+        List<String> fileNames = Arrays.asList("test.txt", "example.java", "readme.md", "nested");
+        
+        Map<String, List<String>> expected = new RecursiveFileSearch(true).searchFiles(
+            tempDir.toString(), fileNames);
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        Map<String, List<String>> results = searcher.searchFilesPipelined(
+            tempDir.toString(), fileNames, 2, 2, 4);
+        
+        for (String fileName : fileNames) {
+            assertEquals(new HashSet<>(expected.get(fileName)), new HashSet<>(results.get(fileName)),
+                "Pipelined search should find the same paths for " + fileName);
+            assertEquals(expected.get(fileName).size(), searcher.getFileCount(fileName),
+                "Pipelined count should match recursive count for " + fileName);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test pipelined search with single-slot queues does not deadlock")
+    void testPipelinedBackpressure() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            Path dir = tempDir.resolve("wide" + i);
+            Files.createDirectories(dir.resolve("inner"));
+            Files.createFile(dir.resolve("target.txt"));
+            Files.createFile(dir.resolve("inner/target.txt"));
+        }
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        Map<String, List<String>> results = assertTimeoutPreemptively(
+            java.time.Duration.ofSeconds(10),
+            () -> searcher.searchFilesPipelined(
+                tempDir.toString(), Arrays.asList("target.txt"), 3, 1, 1));
+        
+        assertEquals(40, results.get("target.txt").size(),
+            "Should find every file even when queues are full");
+    }
+    
+    @Test
+    @DisplayName("Test pipelined search rethrows worker failures instead of hanging")
+    void testPipelinedWorkerFailure() {
+        RecursiveFileSearch failingMatcher = new RecursiveFileSearch(true) {
+            @Override
+            List<String> matchingTargets(String fileName) {
+                throw new IllegalStateException("matcher failed");
+            }
+        };
+        IllegalStateException matchFailure = assertTimeoutPreemptively(java.time.Duration.ofSeconds(10),
+            () -> assertThrows(IllegalStateException.class, () -> failingMatcher.searchFilesPipelined(
+                tempDir.toString(), Arrays.asList("test.txt"), 2, 2, 1)),
+            "A matcher failure should be rethrown");
+        assertEquals("matcher failed", matchFailure.getMessage(), "The worker's own exception should surface");
+        
+        RecursiveFileSearch failingLister = new RecursiveFileSearch(true) {
+            @Override
+            DirectoryListingCache.Listing readDirectory(File currentDir) {
+                if (currentDir.getName().equals("subdir1")) {
+                    throw new IllegalStateException("listing failed");
+                }
+                return super.readDirectory(currentDir);
+            }
+        };
+        assertTimeoutPreemptively(java.time.Duration.ofSeconds(10),
+            () -> assertThrows(IllegalStateException.class, () -> failingLister.searchFilesPipelined(
+                tempDir.toString(), Arrays.asList("test.txt"), 2, 2, 1)),
+            "A listing failure should be rethrown");
+        
+        // A listing that ignores interrupts must finish before the search returns
+        java.util.concurrent.CountDownLatch slowStarted = new java.util.concurrent.CountDownLatch(1);
+        java.util.concurrent.atomic.AtomicInteger listing = new java.util.concurrent.atomic.AtomicInteger();
+        RecursiveFileSearch slowLister = new RecursiveFileSearch(true) {
+            @Override
+            DirectoryListingCache.Listing readDirectory(File currentDir) {
+                if (currentDir.getName().equals("subdir1")) {
+                    awaitQuietly(slowStarted);
+                    throw new IllegalStateException("listing failed");
+                }
+                if (currentDir.getName().equals("subdir2")) {
+                    listing.incrementAndGet();
+                    slowStarted.countDown();
+                    sleepUninterruptibly(300);
+                    listing.decrementAndGet();
+                }
+                return super.readDirectory(currentDir);
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> slowLister.searchFilesPipelined(
+            tempDir.toString(), Arrays.asList("test.txt"), 2, 2, 1));
+        assertEquals(0, listing.get(), "No listing should still be running after the search returns");
+    }
+    
+    private static void awaitQuietly(java.util.concurrent.CountDownLatch latch) {
+        try {
+            latch.await(1, java.util.concurrent.TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void sleepUninterruptibly(long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                // Keep sleeping, like a blocking file system call
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Test pipelined search on empty directory")
+    void testPipelinedEmptyDirectory() throws IOException {
+        Path emptyDir = tempDir.resolve("empty");
+        Files.createDirectory(emptyDir);
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(false);
+        Map<String, List<String>> results = searcher.searchFilesPipelined(
+            emptyDir.toString(), Arrays.asList("TEST.TXT"), 1, 1, 1);
+        
+        assertTrue(results.get("TEST.TXT").isEmpty(),
+            "Should return empty list for empty directory");
+    }
+    
+    @Test
+    @DisplayName("Test pipelined search rejects invalid stage sizes")
+    void testPipelinedInvalidStageSizes() {
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        List<String> fileNames = Arrays.asList("test.txt");
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> searcher.searchFilesPipelined(tempDir.toString(), fileNames, 0, 1, 1),
+            "Should reject zero listing threads");
+        assertThrows(IllegalArgumentException.class,
+            () -> searcher.searchFilesPipelined(tempDir.toString(), fileNames, 1, 0, 1),
+            "Should reject zero matching threads");
+        assertThrows(IllegalArgumentException.class,
+            () -> searcher.searchFilesPipelined(tempDir.toString(), fileNames, 1, 1, 0),
+            "Should reject zero queue capacity");
+    }
+    
+    // ==================== Duplicate Detection Tests ====================
+    
+    @Test
+    @DisplayName("Test duplicate detection groups identical content")
+    void testFindDuplicateContent() throws IOException {
+        Files.write(tempDir.resolve("a.txt"), "same content".getBytes());
+        Files.write(tempDir.resolve("subdir1/b.txt"), "same content".getBytes());
+        Files.write(tempDir.resolve("subdir2/c.txt"), "other content".getBytes());
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        List<List<String>> groups = searcher.findDuplicateFiles(tempDir.toString());
+        
+        List<String> expected = Arrays.asList(
+            tempDir.resolve("a.txt").toAbsolutePath().toString(),
+            tempDir.resolve("subdir1/b.txt").toAbsolutePath().toString());
+        assertTrue(groups.contains(expected),
+            "Files with identical content should be grouped");
+        for (List<String> group : groups) {
+            assertFalse(group.contains(tempDir.resolve("subdir2/c.txt").toAbsolutePath().toString()),
+                "Unique content should not be reported as duplicate");
+        }
+    }
+    
+    @Test
+    @DisplayName("Test same name with different content is not a duplicate")
+    void testSameNameDifferentContent() throws IOException {
+        Files.write(tempDir.resolve("test.txt"), "first".getBytes());
+        Files.write(tempDir.resolve("subdir1/test.txt"), "secnd".getBytes());
+        Files.write(tempDir.resolve("subdir1/nested/test.txt"), "third".getBytes());
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        List<List<String>> groups = searcher.findDuplicateFiles(tempDir.toString());
+        
+        for (List<String> group : groups) {
+            for (String path : group) {
+                assertFalse(path.endsWith("test.txt"),
+                    "Same-sized files with different content should not be grouped");
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Test duplicate detection reads only file ends when heads differ")
+    void testDuplicateDetectionReadsSmallFraction() throws IOException {
+        int size = 1024 * 1024;
+        byte[] first = new byte[size];
+        byte[] second = new byte[size];
+        second[0] = 1;
+        byte[] third = new byte[size];
+        third[size / 2] = 1;
+        Path scanDir = tempDir.resolve("scan");
+        Files.createDirectories(scanDir.resolve("copies"));
+        Files.write(scanDir.resolve("large1.bin"), first);
+        Files.write(scanDir.resolve("large2.bin"), second);
+        Files.write(scanDir.resolve("large3.bin"), third);
+        Files.write(scanDir.resolve("copies/large1-copy.bin"), first);
+        
+        DuplicateFileFinder finder = new DuplicateFileFinder(4096);
+        List<List<String>> groups = finder.findDuplicates(scanDir.toFile());
+        
+        assertEquals(1, groups.size(), "Only the exact copy should be a duplicate");
+        assertEquals(2, groups.get(0).size(), "Group should hold the file and its copy");
+        assertTrue(groups.get(0).get(0).endsWith("large1.bin")
+            || groups.get(0).get(1).endsWith("large1.bin"), "Group should contain large1.bin");
+        assertEquals(3, finder.getFullHashCount(),
+            "Only files that collide on size and partial hash should be fully hashed");
+        assertTrue(finder.getBytesRead() < 4L * size,
+            "File differing in its head should never be read in full");
+    }
+    
+    @Test
+    @DisplayName("Test duplicate detection on directory without duplicates")
+    void testNoDuplicates() throws IOException {
+        Path emptyDir = tempDir.resolve("empty");
+        Files.createDirectory(emptyDir);
+        Files.write(emptyDir.resolve("only.txt"), "alone".getBytes());
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        
+        assertTrue(searcher.findDuplicateFiles(emptyDir.toString()).isEmpty(),
+            "Single file should produce no duplicate groups");
+        assertThrows(IOException.class,
+            () -> searcher.findDuplicateFiles("/nonexistent/path/xyz"),
+            "Should throw IOException for non-existent directory");
+    }
+    
+    // ==================== Checkpoint and Resume Tests ====================
+    
+    @Test
+    @DisplayName("Test checkpointed search matches plain search and removes checkpoint")
+    void testCheckpointedSearch() throws IOException {
+        Path checkpoint = tempDir.resolve("search.ckpt");
+        List<String> fileNames = Arrays.asList("test.txt", "readme.md");
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.enableCheckpoints(checkpoint.toString(), 1);
+        Map<String, List<String>> results = searcher.searchFiles(tempDir.toString(), fileNames);
+        
+        assertEquals(3, results.get("test.txt").size(), "Should find 3 test.txt files");
+        assertEquals(1, results.get("readme.md").size(), "Should find 1 readme.md file");
+        assertEquals(3, searcher.getFileCount("test.txt"), "File count should be 3");
+        assertFalse(Files.exists(checkpoint),
+            "Checkpoint should be deleted once the search completes");
+    }
+    
+    @Test
+    @DisplayName("Test resume continues from pending directories only")
+    void testResumeFromCheckpoint() throws IOException {
+        Path checkpoint = tempDir.resolve("resume.ckpt");
+        String rootMatch = tempDir.resolve("test.txt").toAbsolutePath().toString();
+        
+        // Simulate a search interrupted after the root and subdir2 were listed
+        Map<String, List<String>> partial = new HashMap<>();
+        partial.put("test.txt", new ArrayList<>(Arrays.asList(rootMatch)));
+        Map<String, Integer> partialCount = new HashMap<>();
+        partialCount.put("test.txt", 1);
+        new SearchCheckpoint(tempDir.toAbsolutePath().toString(), false,
+            RecursiveFileSearch.MatchMode.EXACT, false, Collections.emptyList(),
+            Arrays.asList("test.txt"),
+            Arrays.asList(tempDir.resolve("subdir1").toAbsolutePath().toString()),
+            partial, partialCount).write(checkpoint);
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        Map<String, List<String>> results = searcher.resumeSearch(checkpoint.toString());
+        
+        assertEquals(3, results.get("test.txt").size(),
+            "Resumed search should combine partial and remaining results");
+        assertEquals(rootMatch, results.get("test.txt").get(0),
+            "Partial results should be kept in order");
+        assertEquals(3, searcher.getFileCount("test.txt"), "Count should include partial results");
+        assertFalse(Files.exists(checkpoint),
+            "Checkpoint should be deleted once the resumed search completes");
+    }
+    
+    @Test
+    @DisplayName("Test resumed substring search keeps its match mode")
+    void testResumeSubstringSearch() throws IOException {
+        Path checkpoint = tempDir.resolve("substring.ckpt");
+        List<String> fragments = Arrays.asList("test");
+        
+        RecursiveFileSearch reference = new RecursiveFileSearch(true);
+        reference.setMatchMode(RecursiveFileSearch.MatchMode.SUBSTRING);
+        Set<String> expected = new HashSet<>(reference.searchFiles(tempDir.toString(), fragments).get("test"));
+        
+        // Crash at the first match recorded after a checkpoint has been written
+        RecursiveFileSearch crashing = new RecursiveFileSearch(true);
+        crashing.setMatchMode(RecursiveFileSearch.MatchMode.SUBSTRING);
+        crashing.enableCheckpoints(checkpoint.toString(), 1);
+        crashing.setMatchListener((name, path) -> {
+            if (Files.exists(checkpoint)) {
+                throw new IllegalStateException("simulated crash");
+            }
+        });
+        assertThrows(IllegalStateException.class, () -> crashing.searchFiles(tempDir.toString(), fragments),
+            "The search should crash after its first checkpoint");
+        assertTrue(Files.exists(checkpoint), "A checkpoint should remain after the crash");
+        
+        // A default (EXACT) searcher must pick up SUBSTRING from the checkpoint
+        RecursiveFileSearch resumed = new RecursiveFileSearch(true);
+        Map<String, List<String>> results = resumed.resumeSearch(checkpoint.toString());
+        
+        assertEquals(expected, new HashSet<>(results.get("test")),
+            "Resumed substring search should find what an uninterrupted one finds");
+        assertEquals(expected.size(), results.get("test").size(), "No match should be recorded twice");
+    }
+    
+    @Test
+    @DisplayName("Test resume rejects files that are not checkpoints")
+    void testResumeInvalidCheckpoint() throws IOException {
+        Path bogus = tempDir.resolve("bogus.ckpt");
+        Files.write(bogus, "not a checkpoint".getBytes());
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        
+        assertThrows(IOException.class, () -> searcher.resumeSearch(bogus.toString()),
+            "Should throw IOException for a corrupt checkpoint");
+        assertThrows(IllegalArgumentException.class, () -> searcher.resumeSearch(""),
+            "Should reject an empty checkpoint path");
+        assertThrows(IllegalArgumentException.class,
+            () -> searcher.enableCheckpoints(bogus.toString(), 0),
+            "Should reject a non-positive checkpoint interval");
+    }
+    
+    // ==================== Metrics Tests ====================
+    
+    @Test
+    @DisplayName("Test metrics are disabled by default")
+    void testMetricsDisabledByDefault() throws IOException {
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.searchFiles(tempDir.toString(), Arrays.asList("test.txt"));
+        
+        assertNull(searcher.getMetrics(), "Metrics should be null unless enabled");
+    }
+    
+    @Test
+    @DisplayName("Test metrics count directories, entries and matches")
+    void testMetricsCounters() throws IOException {
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setMetricsEnabled(true);
+        searcher.searchFiles(tempDir.toString(), Arrays.asList("test.txt"));
+        
+        SearchMetrics.Snapshot snapshot = searcher.getMetrics().snapshot();
+        
+        // root, subdir1, subdir2, subdir1/nested
+        assertEquals(4, snapshot.getDirectoriesVisited(), "Should visit 4 directories");
+        // 3 entries in root, 2 in subdir1, 2 in subdir2, 1 in nested
+        assertEquals(8, snapshot.getEntriesExamined(), "Should examine 8 entries");
+        assertEquals(16, snapshot.getStatCalls(), "Should make 2 stat calls per entry");
+        assertEquals(3, snapshot.getMatches(), "Should record 3 matches");
+        assertEquals(0, snapshot.getErrors(), "Should record no errors");
+        
+        long expectedBytes = 0;
+        for (String path : searcher.searchFiles(tempDir.toString(), Arrays.asList("test.txt")).get("test.txt")) {
+            expectedBytes += path.length();
+        }
+        assertEquals(expectedBytes, searcher.getMetrics().snapshot().getResultBytes(),
+            "Result bytes should sum the matched path lengths");
+    }
+    
+    @Test
+    @DisplayName("Test metrics phase histograms and throughput")
+    void testMetricsPhaseHistograms() throws IOException {
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setMetricsEnabled(true);
+        searcher.searchFilesPipelined(tempDir.toString(), Arrays.asList("test.txt"), 2, 2, 4);
+        
+        SearchMetrics.Snapshot snapshot = searcher.getMetrics().snapshot();
+        
+        for (SearchMetrics.Phase phase : SearchMetrics.Phase.values()) {
+            long samples = 0;
+            for (long count : snapshot.getHistogram(phase)) {
+                samples += count;
+            }
+            assertTrue(samples > 0, "Phase " + phase + " should have timing samples");
+            assertTrue(snapshot.getPercentileNanos(phase, 99) >= snapshot.getPercentileNanos(phase, 50),
+                "Percentiles should be monotonic for " + phase);
+        }
+        assertEquals(4, snapshot.getDirectoriesVisited(), "Pipelined search should visit 4 directories");
+        assertEquals(3, snapshot.getMatches(), "Pipelined search should record 3 matches");
+        assertTrue(snapshot.getDirectoriesPerSecond() > 0, "Throughput should be positive");
+    }
+    
+    @Test
+    @DisplayName("Test metrics are exposed through JMX")
+    void testMetricsMBean() throws Exception {
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        SearchMetrics metrics = searcher.setMetricsEnabled(true);
+        String name = "RecursiveFileSearchTest:type=SearchMetrics";
+        
+        metrics.registerMBean(name);
+        try {
+            searcher.searchFiles(tempDir.toString(), Arrays.asList("test.txt"));
+            
+            Object matches = java.lang.management.ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new javax.management.ObjectName(name), "Matches");
+            assertEquals(3L, matches, "MBean should report the live match count");
+        } finally {
+            metrics.unregisterMBean(name);
+        }
+    }
+    
+    // ==================== Error Collection Tests ====================
+    
+    @Test
+    @DisplayName("Test successful search records no errors")
+    void testNoErrorsRecorded() throws IOException {
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.searchFiles(tempDir.toString(), Arrays.asList("test.txt"));
+        
+        assertTrue(searcher.getErrors().isEmpty(), "Readable tree should produce no errors");
+        assertTrue(searcher.getErrors().getErrors().isEmpty(), "No individual errors should be kept");
+    }
+    
+    @Test
+    @DisplayName("Test unreadable directory is recorded instead of silently skipped")
+    void testUnreadableDirectoryRecorded() throws IOException {
+        Path locked = tempDir.resolve("locked");
+        Files.createDirectory(locked);
+        Files.createFile(locked.resolve("test.txt"));
+        
+        File lockedDir = locked.toFile();
+        lockedDir.setReadable(false);
+        try {
+            // Permissions are not enforced for privileged users
+            Assumptions.assumeTrue(lockedDir.listFiles() == null,
+                "Directory permissions are not enforced in this environment");
+            
+            RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+            Map<String, List<String>> results = searcher.searchFiles(
+                tempDir.toString(), Arrays.asList("test.txt"));
+            
+            assertEquals(3, results.get("test.txt").size(), "Unreadable directory should be skipped");
+            SearchErrorCollector errors = searcher.getErrors();
+            assertEquals(1, errors.getCount(SearchErrorCollector.Kind.LISTING_FAILED),
+                "Failed listing should be counted");
+            assertEquals(lockedDir.getPath(), errors.getErrors().get(0).getPath(),
+                "Failed listing should be recorded with its path");
+        } finally {
+            lockedDir.setReadable(true);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test error collector keeps a bounded number of errors")
+    void testErrorCollectorBounded() {
+        SearchErrorCollector errors = new SearchErrorCollector(2);
+        
+        errors.record(SearchErrorCollector.Kind.ACCESS_DENIED, "/a");
+        errors.record(SearchErrorCollector.Kind.LISTING_FAILED, "/b");
+        errors.record(SearchErrorCollector.Kind.ACCESS_DENIED, "/c");
+        
+        assertEquals(2, errors.getErrors().size(), "Only capacity errors should be kept");
+        assertEquals("/a", errors.getErrors().get(0).getPath(), "Errors should keep recording order");
+        assertEquals(2, errors.getCount(SearchErrorCollector.Kind.ACCESS_DENIED),
+            "Counts should include errors beyond capacity");
+        assertEquals(3, errors.getTotalCount(), "Total should count every error");
+        assertEquals(1, errors.getDroppedCount(), "One error should be dropped");
+        assertFalse(errors.getCounts().containsKey(SearchErrorCollector.Kind.READ_FAILED),
+            "Kinds that never occurred should be omitted");
+    }
+    
+    @Test
+    @DisplayName("Test error collector accepts concurrent recording")
+    void testErrorCollectorConcurrent() throws InterruptedException {
+        SearchErrorCollector errors = new SearchErrorCollector(100);
+        Thread[] threads = new Thread[4];
+        
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    errors.record(SearchErrorCollector.Kind.ACCESS_DENIED, "/path" + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(4000, errors.getCount(SearchErrorCollector.Kind.ACCESS_DENIED),
+            "No concurrent error should be lost from the counts");
+        assertEquals(100, errors.getErrors().size(), "Exactly capacity errors should be kept");
+    }
+    
+    // ==================== Unicode Case Folding Tests ====================
+    
+    /**
+     * Creates a file with a non-ASCII name, skipping the test when the
+     * platform file name encoding cannot represent it
+     */
+    private void createUnicodeFile(String name) throws IOException {
+        try {
+            Files.createFile(tempDir.resolve(name));
+        } catch (InvalidPathException e) {
+            Assumptions.abort("File name encoding cannot represent " + name);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test case-insensitive search ignores a Turkish default locale")
+    void testCaseInsensitiveTurkishLocale() throws IOException {
+        Files.createFile(tempDir.resolve("title.txt"));
+        Locale original = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            RecursiveFileSearch searcher = new RecursiveFileSearch(false);
+            Map<String, List<String>> results = searcher.searchFiles(
+                tempDir.toString(), Arrays.asList("TITLE.TXT"));
+            
+            // In Turkish, "I".toLowerCase() is dotless i, which must not break matching
+            assertEquals(1, results.get("TITLE.TXT").size(),
+                "Folding should be locale-independent");
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test case-insensitive search does not equate dotted capital I with i")
+    void testCaseInsensitiveDottedCapitalI() throws IOException {
+        Files.createFile(tempDir.resolve("index.txt"));
+        createUnicodeFile("İndex.txt");
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(false);
+        Map<String, List<String>> results = searcher.searchFiles(
+            tempDir.toString(), Arrays.asList("INDEX.TXT"));
+        
+        assertEquals(1, results.get("INDEX.TXT").size(),
+            "Capital I with dot above should not fold to plain i");
+        assertTrue(results.get("INDEX.TXT").get(0).endsWith("index.txt"),
+            "Only the plain ASCII name should match");
+    }
+    
+    @Test
+    @DisplayName("Test case-insensitive search folds German sharp s")
+    void testCaseInsensitiveSharpS() throws IOException {
+        createUnicodeFile("straße.txt");
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(false);
+        Map<String, List<String>> results = searcher.searchFiles(
+            tempDir.toString(), Arrays.asList("STRASSE.TXT", "Straße.txt"));
+        
+        assertEquals(1, results.get("STRASSE.TXT").size(), "SS should match sharp s");
+        assertEquals(1, results.get("Straße.txt").size(), "Sharp s should match itself");
+        
+        RecursiveFileSearch sensitive = new RecursiveFileSearch(true);
+        assertTrue(sensitive.searchFiles(tempDir.toString(), Arrays.asList("STRASSE.TXT"))
+            .get("STRASSE.TXT").isEmpty(), "Case-sensitive search should not fold");
+    }
+    
+    @Test
+    @DisplayName("Test case-insensitive search folds Greek final sigma")
+    void testCaseInsensitiveGreekSigma() throws IOException {
+        createUnicodeFile("λογος.txt");
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(false);
+        Map<String, List<String>> results = searcher.searchFiles(
+            tempDir.toString(), Arrays.asList("ΛΟΓΟΣ.TXT"));
+        
+        assertEquals(1, results.get("ΛΟΓΟΣ.TXT").size(),
+            "Upper-case sigma should match final sigma");
+    }
+    
+    @Test
+    @DisplayName("Test case folding of Unicode names without the file system")
+    void testFoldCaseUnicode() {
+        assertEquals("index.txt", RecursiveFileSearch.foldCase("INDEX.TXT"), "ASCII fast path");
+        assertEquals("i\u0307ndex.txt", RecursiveFileSearch.foldCase("\u0130ndex.txt"),
+            "Capital I with dot above should keep its dot");
+        assertEquals("index.txt", RecursiveFileSearch.foldCase("\u0131ndex.txt"),
+            "Dotless i should fold like equalsIgnoreCase does");
+        assertEquals("strasse.txt", RecursiveFileSearch.foldCase("Stra\u00dfe.txt"),
+            "Sharp s should fold to ss");
+        assertEquals(RecursiveFileSearch.foldCase("\u039b\u039f\u0393\u039f\u03a3"),
+            RecursiveFileSearch.foldCase("\u03bb\u03bf\u03b3\u03bf\u03c2"),
+            "Final sigma should fold like sigma");
+        
+        Locale original = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertEquals("title.txt", RecursiveFileSearch.foldCase("TITLE.TXT"),
+                "Folding should ignore a Turkish default locale");
+            assertEquals("t\u00eftle", RecursiveFileSearch.foldCase("T\u00cfTLE"),
+                "Non-ASCII folding should ignore a Turkish default locale");
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test Unicode queries match entry names without the file system")
+    void testMatchingTargetsUnicode() {
+        RecursiveFileSearch searcher = new RecursiveFileSearch(false);
+        searcher.buildQueryIndex(Arrays.asList("INDEX.TXT", "STRASSE.TXT", "\u039b\u039f\u0393\u039f\u03a3.TXT"));
+        
+        assertEquals(Arrays.asList("INDEX.TXT"), searcher.matchingTargets("index.txt"));
+        assertEquals(Arrays.asList("INDEX.TXT"), searcher.matchingTargets("\u0131ndex.txt"),
+            "Dotless i should match I");
+        assertTrue(searcher.matchingTargets("\u0130ndex.txt").isEmpty(),
+            "Capital I with dot above should not match plain I");
+        assertEquals(Arrays.asList("STRASSE.TXT"), searcher.matchingTargets("stra\u00dfe.txt"),
+            "Sharp s should match SS");
+        assertEquals(Arrays.asList("\u039b\u039f\u0393\u039f\u03a3.TXT"),
+            searcher.matchingTargets("\u03bb\u03bf\u03b3\u03bf\u03c2.txt"),
+            "Final sigma should match capital sigma");
+        
+        RecursiveFileSearch sensitive = new RecursiveFileSearch(true);
+        sensitive.buildQueryIndex(Arrays.asList("STRASSE.TXT", "Stra\u00dfe.txt"));
+        assertTrue(sensitive.matchingTargets("stra\u00dfe.txt").isEmpty(),
+            "Case-sensitive matching should not fold");
+        assertEquals(Arrays.asList("Stra\u00dfe.txt"), sensitive.matchingTargets("Stra\u00dfe.txt"));
+    }
+    
+    @Test
+    @DisplayName("Test case-insensitive queries differing only in case share matches")
+    void testCaseInsensitiveEquivalentQueries() throws IOException {
+        RecursiveFileSearch searcher = new RecursiveFileSearch(false);
+        Map<String, List<String>> results = searcher.searchFiles(
+            tempDir.toString(), Arrays.asList("test.txt", "TEST.TXT"));
+        
+        assertEquals(3, results.get("test.txt").size(), "Lower-case query should match 3 files");
+        assertEquals(3, results.get("TEST.TXT").size(), "Upper-case query should match 3 files");
+    }
+    
+    // ==================== Listing Cache Tests ====================
+    
+    @Test
+    @DisplayName("Test repeated search is answered from the listing cache")
+    void testListingCacheHits() throws IOException {
+        DirectoryListingCache cache = new DirectoryListingCache(100, 60_000);
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setListingCache(cache);
+        List<String> fileNames = Arrays.asList("test.txt");
+        
+        Map<String, List<String>> first = searcher.searchFiles(tempDir.toString(), fileNames);
+        assertEquals(0, cache.getHitCount(), "First search should not hit the cache");
+        assertEquals(4, cache.getMissCount(), "First search should miss once per directory");
+        
+        searcher.setMetricsEnabled(true);
+        Map<String, List<String>> second = searcher.searchFiles(tempDir.toString(), fileNames);
+        
+        assertEquals(first, second, "Cached search should return identical results");
+        assertEquals(4, cache.getHitCount(), "Second search should hit once per directory");
+        assertEquals(0, searcher.getMetrics().snapshot().getStatCalls(),
+            "Cache hits should skip per-entry stat calls");
+        assertEquals(0.5, cache.getHitRatio(), 1e-9, "Half of all lookups should be hits");
+    }
+    
+    @Test
+    @DisplayName("Test listing cache detects changed directories by mtime")
+    void testListingCacheMtimeValidation() throws IOException {
+        DirectoryListingCache cache = new DirectoryListingCache(100, 60_000);
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setListingCache(cache);
+        List<String> fileNames = Arrays.asList("test.txt");
+        
+        searcher.searchFiles(tempDir.toString(), fileNames);
+        Files.createFile(tempDir.resolve("subdir2/test.txt"));
+        Map<String, List<String>> results = searcher.searchFiles(tempDir.toString(), fileNames);
+        
+        assertEquals(4, results.get("test.txt").size(), "New file should be found despite the cache");
+        assertEquals(1, cache.getInvalidationCount(), "Only the changed directory should be invalidated");
+        assertEquals(3, cache.getHitCount(), "Unchanged directories should still hit");
+    }
+    
+    @Test
+    @DisplayName("Test listing cache expires entries after the TTL")
+    void testListingCacheTtl() throws Exception {
+        DirectoryListingCache cache = new DirectoryListingCache(100, 1);
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setListingCache(cache);
+        
+        searcher.searchFiles(tempDir.toString(), Arrays.asList("test.txt"));
+        Thread.sleep(20);
+        searcher.searchFiles(tempDir.toString(), Arrays.asList("test.txt"));
+        
+        assertEquals(0, cache.getHitCount(), "Expired listings should not be used");
+        assertEquals(4, cache.getInvalidationCount(), "Every expired listing should be invalidated");
+    }
+    
+    @Test
+    @DisplayName("Test listing cache is bounded and shared between searchers")
+    void testListingCacheBoundedAndShared() throws IOException {
+        DirectoryListingCache cache = new DirectoryListingCache(2, 60_000);
+        RecursiveFileSearch first = new RecursiveFileSearch(true);
+        first.setListingCache(cache);
+        first.searchFiles(tempDir.toString(), Arrays.asList("test.txt"));
+        
+        assertEquals(2, cache.size(), "Cache should not exceed its size bound");
+        assertEquals(2, cache.getEvictionCount(), "Least recently used listings should be evicted");
+        
+        DirectoryListingCache shared = new DirectoryListingCache(100, 60_000);
+        first.setListingCache(shared);
+        first.searchFiles(tempDir.toString(), Arrays.asList("test.txt"));
+        
+        RecursiveFileSearch second = new RecursiveFileSearch(true);
+        second.setListingCache(shared);
+        Map<String, List<String>> results = second.searchFilesPipelined(
+            tempDir.toString(), Arrays.asList("test.txt"), 2, 1, 4);
+        
+        assertEquals(3, results.get("test.txt").size(), "Pipelined search should use cached listings");
+        assertEquals(4, shared.getHitCount(), "Second searcher should hit the shared cache");
+    }
+    
+    // ==================== Symbolic Link Tests ====================
+    
+    /**
+     * Creates a symbolic link, skipping the test where links are unsupported
+     */
+    private void createLink(Path link, Path target) throws IOException {
+        try {
+            Files.createSymbolicLink(link, target);
+        } catch (UnsupportedOperationException | IOException e) {
+            Assumptions.abort("Symbolic links are not supported: " + e.getMessage());
+        }
+    }
+    
+    @Test
+    @DisplayName("Test symbolic links are skipped by default")
+    void testSymbolicLinksSkippedByDefault() throws IOException {
+        Path outside = Files.createDirectories(tempDir.resolve("outside"));
+        Files.createFile(outside.resolve("linked.txt"));
+        Path searchRoot = tempDir.resolve("subdir1");
+        createLink(searchRoot.resolve("link"), outside);
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        Map<String, List<String>> results = searcher.searchFiles(
+            searchRoot.toString(), Arrays.asList("linked.txt"));
+        
+        assertTrue(results.get("linked.txt").isEmpty(), "Files behind links should not be found by default");
+    }
+    
+    @Test
+    @DisplayName("Test follow-links mode finds files behind linked directories")
+    void testFollowLinksFindsLinkedFiles() throws IOException {
+        Path outside = Files.createDirectories(tempDir.resolve("outside"));
+        Files.createFile(outside.resolve("linked.txt"));
+        Path searchRoot = tempDir.resolve("subdir1");
+        createLink(searchRoot.resolve("link"), outside);
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setFollowLinks(true);
+        Map<String, List<String>> results = searcher.searchFiles(
+            searchRoot.toString(), Arrays.asList("linked.txt", "test.txt"));
+        
+        assertEquals(1, results.get("linked.txt").size(), "File behind the link should be found");
+        assertTrue(results.get("linked.txt").get(0).contains("link"),
+            "Path should go through the link");
+        assertEquals(2, results.get("test.txt").size(), "Regular files should still be found");
+    }
+    
+    @Test
+    @DisplayName("Test follow-links mode terminates on link cycles")
+    void testFollowLinksCycle() throws IOException {
+        createLink(tempDir.resolve("subdir1/nested/loop"), tempDir);
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setFollowLinks(true);
+        Map<String, List<String>> results = assertTimeoutPreemptively(
+            java.time.Duration.ofSeconds(10),
+            () -> searcher.searchFiles(tempDir.toString(), Arrays.asList("test.txt")));
+        
+        assertEquals(3, results.get("test.txt").size(), "Each file should be found exactly once");
+        
+        RecursiveFileSearch pipelined = new RecursiveFileSearch(true);
+        pipelined.setFollowLinks(true);
+        assertEquals(3, pipelined.searchFilesPipelined(tempDir.toString(),
+            Arrays.asList("test.txt"), 3, 1, 2).get("test.txt").size(),
+            "Pipelined search should also visit each directory once");
+    }
+    
+    @Test
+    @DisplayName("Test resumed follow-links search keeps following links and its cycle state")
+    void testResumeFollowLinksSearch() throws IOException {
+        Path outside = Files.createDirectories(tempDir.resolve("outside"));
+        Files.createFile(outside.resolve("linked.txt"));
+        Path searchRoot = tempDir.resolve("subdir1");
+        // Both links sit in nested, which is only listed after the first checkpoint
+        createLink(searchRoot.resolve("nested/link"), outside);
+        createLink(searchRoot.resolve("nested/loop"), searchRoot);
+        Path checkpoint = tempDir.resolve("links.ckpt");
+        List<String> names = Arrays.asList("linked.txt", "test.txt");
+        
+        // Crash at the first match recorded after a checkpoint has been written
+        RecursiveFileSearch crashing = new RecursiveFileSearch(true) {
+            @Override
+            void recordMatch(String targetFileName, String fullPath) {
+                if (Files.exists(checkpoint)) {
+                    throw new IllegalStateException("simulated crash");
+                }
+                super.recordMatch(targetFileName, fullPath);
+            }
+        };
+        crashing.setFollowLinks(true);
+        crashing.enableCheckpoints(checkpoint.toString(), 1);
+        assertThrows(IllegalStateException.class, () -> crashing.searchFiles(searchRoot.toString(), names),
+            "The search should crash after its first checkpoint");
+        
+        // A default searcher must pick up follow-links mode and the visited set from the checkpoint
+        RecursiveFileSearch resumed = new RecursiveFileSearch(true);
+        Map<String, List<String>> results = assertTimeoutPreemptively(java.time.Duration.ofSeconds(10),
+            () -> resumed.resumeSearch(checkpoint.toString()));
+        
+        assertEquals(1, results.get("linked.txt").size(), "The file behind the link should be found");
+        assertEquals(2, results.get("test.txt").size(), "The loop must not revisit directories listed before the crash");
+    }
+    
+    @Test
+    @DisplayName("Test follow-links mode searches a directory reached twice only once")
+    void testFollowLinksSharedTarget() throws IOException {
+        Path shared = Files.createDirectories(tempDir.resolve("shared"));
+        Files.createFile(shared.resolve("shared.txt"));
+        createLink(tempDir.resolve("subdir1/first"), shared);
+        createLink(tempDir.resolve("subdir2/second"), shared);
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setFollowLinks(true);
+        Map<String, List<String>> results = searcher.searchFiles(
+            tempDir.toString(), Arrays.asList("shared.txt", "first", "second"));
+        
+        assertEquals(1, results.get("shared.txt").size(), "Shared directory should be searched once");
+        assertEquals(1, results.get("first").size(), "Link names should still match");
+        assertEquals(1, results.get("second").size(), "Link names should still match");
+    }
+    
+    // ==================== Streaming Output Tests ====================
+    
+    @Test
+    @DisplayName("Test match listener sees every match without retaining paths")
+    void testMatchListenerWithoutRetainedPaths() throws IOException {
+        List<String> streamed = new ArrayList<>();
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setMatchListener((name, path) -> streamed.add(name + "=" + path));
+        searcher.setRetainPaths(false);
+        
+        Map<String, List<String>> results = searcher.searchFiles(
+            tempDir.toString(), Arrays.asList("test.txt", "readme.md"));
+        
+        assertEquals(4, streamed.size(), "Every match should be streamed");
+        assertTrue(results.get("test.txt").isEmpty(), "Paths should not be retained");
+        assertEquals(3, searcher.getFileCount("test.txt"), "Counts should still be kept");
+        assertEquals(1, searcher.getFileCount("readme.md"), "Counts should still be kept");
+    }
+    
+    @Test
+    @DisplayName("Test NDJSON output writes one record per match and a summary")
+    void testNdjsonOutput() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SearchResultWriter writer = new SearchResultWriter(SearchResultWriter.Format.NDJSON, bytes);
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setMatchListener(writer);
+        List<String> fileNames = Arrays.asList("test.txt", "example.java");
+        searcher.searchFiles(tempDir.toString(), fileNames);
+        writer.finish(searcher, fileNames);
+        
+        String[] lines = bytes.toString("UTF-8").split("\n");
+        assertEquals(5, lines.length, "Four matches and one summary expected");
+        assertTrue(lines[0].startsWith("{\"type\":\"match\""), "Matches should come first");
+        assertEquals("{\"type\":\"summary\",\"counts\":{\"test.txt\":3,\"example.java\":1},\"errors\":0}",
+            lines[4], "Summary should hold the final counts");
+    }
+    
+    @Test
+    @DisplayName("Test CSV and NUL-delimited output formats")
+    void testCsvAndNullDelimitedOutput() throws IOException {
+        List<String> fileNames = Arrays.asList("readme.md");
+        
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        SearchResultWriter csvWriter = new SearchResultWriter(SearchResultWriter.Format.CSV, csv);
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setMatchListener(csvWriter);
+        searcher.searchFiles(tempDir.toString(), fileNames);
+        csvWriter.finish(searcher, fileNames);
+        
+        String[] rows = csv.toString("UTF-8").split("\n");
+        assertEquals("type,name,value", rows[0], "CSV should start with a header");
+        assertTrue(rows[1].startsWith("match,readme.md,"), "Match row expected");
+        assertEquals("count,readme.md,1", rows[2], "Count trailer expected");
+        assertEquals("errors,,0", rows[3], "Error trailer expected");
+        
+        ByteArrayOutputStream nul = new ByteArrayOutputStream();
+        SearchResultWriter nulWriter = new SearchResultWriter(SearchResultWriter.Format.NULL_DELIMITED, nul);
+        searcher.setMatchListener(nulWriter);
+        searcher.searchFiles(tempDir.toString(), fileNames);
+        nulWriter.finish(searcher, fileNames);
+        
+        String[] records = nul.toString("UTF-8").split("\0");
+        assertEquals(1, records.length, "Only paths should reach xargs -0, without a trailer");
+        assertTrue(records[0].endsWith("readme.md"), "Paths should be written raw");
+    }
+    
+    @Test
+    @DisplayName("Test streamed matches are flushed while the search is still running")
+    void testOutputFlushedBeforeFinish() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SearchResultWriter writer = new SearchResultWriter(SearchResultWriter.Format.NDJSON, bytes);
+        writer.onMatch("test.txt", tempDir.resolve("test.txt").toString());
+        
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (bytes.size() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(bytes.toString("UTF-8").startsWith("{\"type\":\"match\""),
+            "A match should reach the output within the flush interval, before finish");
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        writer.finish(searcher, Arrays.asList("test.txt"));
+        assertEquals(2, bytes.toString("UTF-8").split("\n").length, "Match and summary expected");
+    }
+    
+    @Test
+    @DisplayName("Test output format parsing and field escaping")
+    void testOutputFormatParsingAndEscaping() {
+        assertEquals(SearchResultWriter.Format.NULL_DELIMITED,
+            SearchResultWriter.Format.parse("null-delimited"), "Hyphenated names should parse");
+        assertEquals(SearchResultWriter.Format.NDJSON, SearchResultWriter.Format.parse("NDJSON"),
+            "Names should parse case-insensitively");
+        assertThrows(IllegalArgumentException.class, () -> SearchResultWriter.Format.parse("xml"),
+            "Unknown formats should be rejected");
+        
+        assertEquals("\"a\\\"b\\\\c\\n\"", SearchResultWriter.jsonString("a\"b\\c\n"),
+            "JSON strings should be escaped");
+        assertEquals("\"a,\"\"b\"\"\"", SearchResultWriter.csvField("a,\"b\""),
+            "CSV fields with separators should be quoted");
+        assertEquals("plain", SearchResultWriter.csvField("plain"), "Plain fields stay unquoted");
+    }
+    
+    // ==================== Traversal Order Tests ====================
+    
+    @Test
+    @DisplayName("Test depth-first traversal returns paths in recursive order")
+    void testDepthFirstMatchesRecursiveOrder() throws IOException {
+        Files.createDirectories(tempDir.resolve("subdir2/deeper/test.txt.d"));
+        Files.createFile(tempDir.resolve("subdir2/deeper/test.txt"));
+        Files.createFile(tempDir.resolve("subdir2/zz_test.txt"));
+        List<String> fileNames = Arrays.asList("test.txt", "readme.md", "test.txt.d");
+        
+        RecursiveFileSearch recursive = new RecursiveFileSearch(true);
+        recursive.setTraversalOrder(RecursiveFileSearch.TraversalOrder.RECURSIVE);
+        RecursiveFileSearch depthFirst = new RecursiveFileSearch(true);
+        depthFirst.setTraversalOrder(RecursiveFileSearch.TraversalOrder.DEPTH_FIRST);
+        
+        assertEquals(recursive.searchFiles(tempDir.toString(), fileNames),
+            depthFirst.searchFiles(tempDir.toString(), fileNames),
+            "Iterative depth-first search should give identical results in identical order");
+    }
+    
+    @Test
+    @DisplayName("Test breadth-first traversal finds the same paths level by level")
+    void testBreadthFirstFindsSamePaths() throws IOException {
+        RecursiveFileSearch recursive = new RecursiveFileSearch(true);
+        recursive.setTraversalOrder(RecursiveFileSearch.TraversalOrder.RECURSIVE);
+        RecursiveFileSearch breadthFirst = new RecursiveFileSearch(true);
+        breadthFirst.setTraversalOrder(RecursiveFileSearch.TraversalOrder.BREADTH_FIRST);
+        
+        List<String> expected = recursive.searchFiles(
+            tempDir.toString(), Arrays.asList("test.txt")).get("test.txt");
+        List<String> actual = breadthFirst.searchFiles(
+            tempDir.toString(), Arrays.asList("test.txt")).get("test.txt");
+        
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual), "Same paths should be found");
+        for (int i = 1; i < actual.size(); i++) {
+            assertTrue(actual.get(i - 1).split(java.util.regex.Pattern.quote(File.separator)).length
+                <= actual.get(i).split(java.util.regex.Pattern.quote(File.separator)).length,
+                "Shallower matches should come first");
+        }
+    }
+    
+    @Test
+    @DisplayName("Test breadth-first traversal with a tiny frontier bound")
+    void testBreadthFirstBoundedFrontier() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            Files.createFile(Files.createDirectories(tempDir.resolve("wide/dir" + i)).resolve("test.txt"));
+        }
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setTraversalOrder(RecursiveFileSearch.TraversalOrder.BREADTH_FIRST);
+        searcher.setMaxFrontierSize(1);
+        
+        assertEquals(23, searcher.searchFiles(tempDir.toString(),
+            Arrays.asList("test.txt")).get("test.txt").size(),
+            "Overflowing directories should still be searched");
+        assertThrows(IllegalArgumentException.class, () -> searcher.setMaxFrontierSize(0),
+            "Frontier bound must be positive");
+        assertThrows(IllegalArgumentException.class, () -> searcher.setTraversalOrder(null),
+            "Traversal order cannot be null");
+    }
+    
+    @Test
+    @DisplayName("Test iterative traversals handle nesting deeper than a small stack allows")
+    void testExtremeDepthIterative() throws Exception {
+        // Short names keep the path within common PATH_MAX limits
+        Path deepPath = tempDir;
+        for (int i = 0; i < 1000; i++) {
+            deepPath = deepPath.resolve("d");
+        }
+        Files.createDirectories(deepPath);
+        Files.createFile(deepPath.resolve("deep_file.txt"));
+        
+        // A 1000-level recursion fits the default stack, so use a small one
+        assertTrue(searchWithStack(RecursiveFileSearch.TraversalOrder.RECURSIVE)
+            instanceof StackOverflowError, "The recursive walk should overflow a small stack");
+        for (RecursiveFileSearch.TraversalOrder order : Arrays.asList(
+                RecursiveFileSearch.TraversalOrder.DEPTH_FIRST,
+                RecursiveFileSearch.TraversalOrder.BREADTH_FIRST)) {
+            assertEquals(1, searchWithStack(order),
+                order + " search should reach the deepest file on a small stack");
+        }
+    }
+    
+    /**
+     * Searches tempDir for deep_file.txt on a thread with a small stack
+     * 
+     * @return the number of matches, or the Throwable the search threw
+     */
+    private Object searchWithStack(RecursiveFileSearch.TraversalOrder order) throws InterruptedException {
+        Object[] outcome = new Object[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+                searcher.setTraversalOrder(order);
+                outcome[0] = searcher.searchFiles(tempDir.toString(),
+                    Arrays.asList("deep_file.txt")).get("deep_file.txt").size();
+            } catch (Throwable t) {
+                outcome[0] = t;
+            }
+        }, "small-stack-search", 128 * 1024);
+        thread.start();
+        thread.join();
+        return outcome[0];
+    }
+    
+    // ==================== Multi-Root Search Tests ====================
+    
+    @Test
+    @DisplayName("Test multi-root search routes matches to overlapping roots")
+    void testMultiRootOverlappingRoots() throws IOException {
+        String nested = tempDir.resolve("subdir1").toString();
+        Map<String, List<String>> queries = new LinkedHashMap<>();
+        queries.put(tempDir.toString(), Arrays.asList("test.txt", "readme.md"));
+        queries.put(nested, Arrays.asList("test.txt"));
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setMetricsEnabled(true);
+        Map<String, Map<String, List<String>>> results = searcher.searchRoots(queries);
+        
+        assertEquals(3, results.get(tempDir.toString()).get("test.txt").size(),
+            "Outer root should see every test.txt");
+        assertEquals(1, results.get(tempDir.toString()).get("readme.md").size(),
+            "Outer root should see readme.md");
+        assertEquals(2, results.get(nested).get("test.txt").size(),
+            "Nested root should only see its own subtree");
+        assertFalse(results.get(nested).containsKey("readme.md"),
+            "Nested root should only get its own queries");
+        assertEquals(4, searcher.getMetrics().getDirectoriesVisited(),
+            "Each physical directory should be listed once");
+    }
+    
+    @Test
+    @DisplayName("Test multi-root search with a sibling sharing a name prefix")
+    void testMultiRootPrefixSibling() throws IOException {
+        Files.createDirectories(tempDir.resolve("data/projects"));
+        Files.createDirectories(tempDir.resolve("data-x"));
+        Files.createFile(tempDir.resolve("data/projects/plan.txt"));
+        Files.createFile(tempDir.resolve("data-x/plan.txt"));
+        
+        String data = tempDir.resolve("data").toString();
+        String sibling = tempDir.resolve("data-x").toString();
+        String nested = tempDir.resolve("data/projects").toString();
+        Map<String, List<String>> queries = new LinkedHashMap<>();
+        queries.put(data, Arrays.asList("plan.txt"));
+        queries.put(sibling, Arrays.asList("plan.txt"));
+        queries.put(nested, Arrays.asList("plan.txt"));
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        Map<String, Map<String, List<String>>> results = searcher.searchRoots(queries);
+        
+        assertEquals(1, results.get(data).get("plan.txt").size(),
+            "The nested root must not be walked a second time");
+        assertEquals(1, results.get(nested).get("plan.txt").size(),
+            "The nested root should see its match once");
+        assertEquals(1, results.get(sibling).get("plan.txt").size(),
+            "The sibling root should only see its own match");
+        assertEquals(2, searcher.getFileCount("plan.txt"),
+            "Each physical file should be counted once");
+    }
+    
+    @Test
+    @DisplayName("Test multi-root search walks a nested root that is a symbolic link")
+    void testMultiRootSymlinkedNestedRoot() throws IOException {
+        Files.createDirectories(tempDir.resolve("a"));
+        Files.createDirectories(tempDir.resolve("other"));
+        Files.createFile(tempDir.resolve("other/x.txt"));
+        createLink(tempDir.resolve("a/link"), tempDir.resolve("other"));
+        
+        String parent = tempDir.resolve("a").toString();
+        String link = tempDir.resolve("a/link").toString();
+        Map<String, List<String>> queries = new LinkedHashMap<>();
+        queries.put(parent, Arrays.asList("x.txt"));
+        queries.put(link, Arrays.asList("x.txt"));
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        Map<String, Map<String, List<String>>> results = searcher.searchRoots(queries);
+        
+        assertEquals(Arrays.asList(tempDir.resolve("a/link/x.txt").toString()),
+            results.get(link).get("x.txt"),
+            "The linked root is not walked by its parent, so it must be walked itself");
+        assertTrue(results.get(parent).get("x.txt").isEmpty(),
+            "The parent does not follow the link, as in a single-root search");
+        
+        searcher.setFollowLinks(true);
+        results = searcher.searchRoots(queries);
+        assertEquals(1, results.get(parent).get("x.txt").size(),
+            "Following links, the parent should reach the linked file");
+        assertEquals(1, results.get(link).get("x.txt").size(),
+            "Following links, the linked root should see its match once");
+        assertEquals(1, searcher.getFileCount("x.txt"), "The file should be counted once");
+    }
+    
+    @Test
+    @DisplayName("Test multi-root search matches single-root searches")
+    void testMultiRootMatchesSingleRoot() throws IOException {
+        String first = tempDir.resolve("subdir1").toString();
+        String second = tempDir.resolve("subdir2").toString();
+        String alias = tempDir.resolve("subdir2/../subdir2").toString();
+        Map<String, List<String>> queries = new LinkedHashMap<>();
+        queries.put(first, Arrays.asList("test.txt"));
+        queries.put(second, Arrays.asList("example.java"));
+        queries.put(alias, Arrays.asList("readme.md"));
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(false);
+        Map<String, Map<String, List<String>>> results = searcher.searchRoots(queries);
+        
+        for (Map.Entry<String, List<String>> query : queries.entrySet()) {
+            Map<String, List<String>> single = new RecursiveFileSearch(false)
+                .searchFiles(query.getKey(), query.getValue());
+            Map<String, List<String>> multi = results.get(query.getKey());
+            for (String fileName : query.getValue()) {
+                assertEquals(new HashSet<>(single.get(fileName).stream()
+                        .map(path -> Paths.get(path).normalize().toString())
+                        .collect(java.util.stream.Collectors.toList())),
+                    new HashSet<>(multi.get(fileName)),
+                    "Multi-root results should match a single-root search for " + query.getKey());
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Test multi-root search input validation")
+    void testMultiRootValidation() {
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        
+        assertThrows(IllegalArgumentException.class, () -> searcher.searchRoots(null),
+            "Null root map should be rejected");
+        assertThrows(IllegalArgumentException.class,
+            () -> searcher.searchRoots(Collections.singletonMap(tempDir.toString(), Collections.emptyList())),
+            "Empty query lists should be rejected");
+        assertThrows(IOException.class,
+            () -> searcher.searchRoots(Collections.singletonMap(
+                tempDir.resolve("missing").toString(), Arrays.asList("test.txt"))),
+            "Missing roots should be rejected");
+    }
+    
+    // ==================== Substring Match Tests ====================
+    
+    @Test
+    @DisplayName("Test substring mode finds names containing each fragment")
+    void testSubstringMode() throws IOException {
+        Files.createFile(tempDir.resolve("subdir2/invoice_2024.pdf"));
+        Files.createFile(tempDir.resolve("subdir1/old-INVOICE.txt"));
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setMatchMode(RecursiveFileSearch.MatchMode.SUBSTRING);
+        Map<String, List<String>> results = searcher.searchFiles(
+            tempDir.toString(), Arrays.asList("invoice", "test", ".txt", "nomatch"));
+        
+        assertEquals(1, results.get("invoice").size(), "Case-sensitive fragment should match once");
+        assertEquals(3, results.get("test").size(), "Fragment should match every test.txt");
+        assertEquals(4, results.get(".txt").size(), "Suffix fragment should match all .txt files");
+        assertTrue(results.get("nomatch").isEmpty(), "Absent fragment should match nothing");
+        
+        RecursiveFileSearch insensitive = new RecursiveFileSearch(false);
+        insensitive.setMatchMode(RecursiveFileSearch.MatchMode.SUBSTRING);
+        assertEquals(2, insensitive.searchFiles(tempDir.toString(),
+            Arrays.asList("Invoice")).get("Invoice").size(),
+            "Case-insensitive fragments should ignore case");
+    }
+    
+    @Test
+    @DisplayName("Test Aho-Corasick matcher handles overlapping fragments")
+    void testAhoCorasickOverlappingFragments() {
+        Map<String, List<String>> fragments = new LinkedHashMap<>();
+        for (String fragment : Arrays.asList("he", "she", "his", "hers", "e")) {
+            fragments.put(fragment, Arrays.asList(fragment));
+        }
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(fragments);
+        
+        assertEquals(new HashSet<>(Arrays.asList("she", "he", "e", "hers")),
+            new HashSet<>(matcher.match("ushers")), "All overlapping fragments should be found");
+        assertEquals(Arrays.asList("e"), matcher.match("eee"), "Repeated fragments are reported once");
+        assertTrue(matcher.match("xyz").isEmpty(), "Unrelated names should not match");
+        assertTrue(matcher.match("").isEmpty(), "Empty names should not match");
+    }
+    
+    @Test
+    @DisplayName("Test substring mode with many fragments agrees with a naive scan")
+    void testSubstringManyFragments() {
+        Map<String, List<String>> fragments = new LinkedHashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder fragment = new StringBuilder();
+            int length = 1 + random.nextInt(4);
+            for (int j = 0; j < length; j++) {
+                fragment.append("abcé".charAt(random.nextInt(4)));
+            }
+            fragments.put(fragment.toString(), Arrays.asList(fragment.toString()));
+        }
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(fragments);
+        
+        for (int i = 0; i < 200; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int j = 0; j < 12; j++) {
+                name.append("abcdé".charAt(random.nextInt(5)));
+            }
+            Set<String> expected = new HashSet<>();
+            for (String fragment : fragments.keySet()) {
+                if (name.indexOf(fragment) >= 0) {
+                    expected.add(fragment);
+                }
+            }
+            assertEquals(expected, new HashSet<>(matcher.match(name.toString())),
+                "Automaton should agree with indexOf for " + name);
+        }
+    }
+    
+    // ==================== Search Server Tests ====================
+    
+    @Test
+    @DisplayName("Test search server answers HTTP search requests")
+    void testSearchServerHttp() throws IOException {
+        SearchServer server = new SearchServer(0);
+        server.start();
+        try {
+            String query = "dir=" + java.net.URLEncoder.encode(tempDir.toString(), "UTF-8")
+                + "&name=test.txt&name=README.MD&ci=true";
+            java.net.HttpURLConnection connection = (java.net.HttpURLConnection)
+                new java.net.URL("http://" + server.getBindAddress().getHostAddress() + ":"
+                    + server.getPort() + "/search?" + query).openConnection();
+            
+            assertEquals(200, connection.getResponseCode(), "Search should succeed");
+            String body;
+            try (InputStream in = connection.getInputStream()) {
+                body = new String(in.readAllBytes(), "UTF-8");
+            }
+            assertTrue(body.startsWith("{\"results\":{\"README.MD\":["), "Names should be sorted");
+            assertEquals(4, body.split("test\\.txt\"").length - 1,
+                "The test.txt key and three test.txt paths expected");
+            assertEquals(1, body.split("readme\\.md\"").length - 1,
+                "One readme.md path expected");
+            assertTrue(body.endsWith("\"errors\":0}"), "Error total should be reported");
+            
+            java.net.HttpURLConnection missing = (java.net.HttpURLConnection)
+                new java.net.URL("http://" + server.getBindAddress().getHostAddress() + ":" + server.getPort() + "/search?dir="
+                    + java.net.URLEncoder.encode(tempDir.resolve("missing").toString(), "UTF-8")
+                    + "&name=a").openConnection();
+            assertEquals(404, missing.getResponseCode(), "Missing directories should give 404");
+            
+            java.net.HttpURLConnection noNames = (java.net.HttpURLConnection)
+                new java.net.URL("http://" + server.getBindAddress().getHostAddress() + ":" + server.getPort() + "/search?dir=x").openConnection();
+            assertEquals(400, noNames.getResponseCode(), "Missing names should give 400");
+        } finally {
+            server.stop(0);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test search server coalesces identical concurrent requests")
+    void testSearchServerCoalescing() throws Exception {
+        java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+        SearchServer server = new SearchServer(0) {
+            @Override
+            RecursiveFileSearch newSearcher(boolean caseSensitive) {
+                RecursiveFileSearch searcher = super.newSearcher(caseSensitive);
+                // Hold the leading search open until the followers have joined it
+                searcher.setMatchListener((name, path) -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                return searcher;
+            }
+        };
+        
+        java.util.concurrent.ExecutorService clients = java.util.concurrent.Executors.newFixedThreadPool(4);
+        try {
+            List<java.util.concurrent.Future<String>> responses = new ArrayList<>();
+            responses.add(clients.submit(() -> server.search(
+                tempDir.toString(), Arrays.asList("test.txt", "readme.md"), true)));
+            while (server.getSearchCount() == 0) {
+                Thread.sleep(5);
+            }
+            // Spellings of the same directory should join the same traversal
+            for (String alias : Arrays.asList(tempDir + File.separator, tempDir + File.separator + ".",
+                    tempDir.resolve("subdir1").resolve("..").toString())) {
+                responses.add(clients.submit(() -> server.search(
+                    alias, Arrays.asList("readme.md", "test.txt"), true)));
+            }
+            while (server.getCoalescedCount() < 3) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            
+            String first = responses.get(0).get(10, java.util.concurrent.TimeUnit.SECONDS);
+            for (java.util.concurrent.Future<String> response : responses) {
+                assertEquals(first, response.get(10, java.util.concurrent.TimeUnit.SECONDS),
+                    "Coalesced requests should share the result");
+            }
+            assertEquals(1, server.getSearchCount(), "Only one traversal should run");
+            assertEquals(4, server.getRequestCount(), "Every request should be counted");
+            
+            server.search(tempDir.toString(), Arrays.asList("test.txt"), true);
+            assertEquals(2, server.getSearchCount(), "Finished searches should not be reused");
+        } finally {
+            release.countDown();
+            clients.shutdownNow();
+            server.stop(0);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test search server wakes waiting requests when the leading search fails with an Error")
+    void testSearchServerLeaderError() throws Exception {
+        java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+        SearchServer server = new SearchServer(0) {
+            @Override
+            RecursiveFileSearch newSearcher(boolean caseSensitive) {
+                RecursiveFileSearch searcher = super.newSearcher(caseSensitive);
+                searcher.setMatchListener((name, path) -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new StackOverflowError("Simulated deep tree");
+                });
+                return searcher;
+            }
+        };
+        
+        java.util.concurrent.ExecutorService clients = java.util.concurrent.Executors.newFixedThreadPool(2);
+        try {
+            java.util.concurrent.Future<String> leader = clients.submit(() -> server.search(
+                tempDir.toString(), Arrays.asList("test.txt"), true));
+            while (server.getSearchCount() == 0) {
+                Thread.sleep(5);
+            }
+            java.util.concurrent.Future<String> follower = clients.submit(() -> server.search(
+                tempDir.toString(), Arrays.asList("test.txt"), true));
+            while (server.getCoalescedCount() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            
+            for (java.util.concurrent.Future<String> response : Arrays.asList(leader, follower)) {
+                java.util.concurrent.ExecutionException e = assertThrows(
+                    java.util.concurrent.ExecutionException.class,
+                    () -> response.get(10, java.util.concurrent.TimeUnit.SECONDS),
+                    "Every request should see the failure instead of waiting forever");
+                assertTrue(e.getCause() instanceof StackOverflowError, "The Error should be rethrown");
+            }
+        } finally {
+            release.countDown();
+            clients.shutdownNow();
+            server.stop(0);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test search server binds loopback and reports interrupted searches as 503")
+    void testSearchServerLoopbackAndInterrupt() throws IOException {
+        SearchServer server = new SearchServer(0) {
+            @Override
+            RecursiveFileSearch newSearcher(boolean caseSensitive) {
+                return new RecursiveFileSearch(caseSensitive) {
+                    @Override
+                    public Map<String, List<String>> searchFiles(String directoryPath, List<String> fileNames)
+                            throws IOException {
+                        throw new java.io.InterruptedIOException("Search interrupted");
+                    }
+                };
+            }
+        };
+        server.start();
+        try {
+            assertTrue(server.getBindAddress().isLoopbackAddress(),
+                "The server should only listen on the loopback interface by default");
+            
+            java.net.HttpURLConnection connection = (java.net.HttpURLConnection)
+                new java.net.URL("http://" + server.getBindAddress().getHostAddress() + ":" + server.getPort()
+                    + "/search?dir=" + java.net.URLEncoder.encode(tempDir.toString(), "UTF-8")
+                    + "&name=a").openConnection();
+            assertEquals(503, connection.getResponseCode(), "Interrupted searches should not be reported as 404");
+        } finally {
+            server.stop(0);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test search server query parsing")
+    void testSearchServerQueryParsing() {
+        Map<String, List<String>> params = SearchServer.parseQuery("dir=%2Ftmp%2Fa+b&name=x&name=y%26z&flag");
+        
+        assertEquals(Arrays.asList("/tmp/a b"), params.get("dir"), "Values should be URL-decoded");
+        assertEquals(Arrays.asList("x", "y&z"), params.get("name"), "Repeated names should be kept in order");
+        assertEquals(Arrays.asList(""), params.get("flag"), "Bare parameters should have an empty value");
+        assertTrue(SearchServer.parseQuery(null).isEmpty(), "Missing query should give no parameters");
+    }
+    
+    // ==================== Adaptive Concurrency Tests ====================
+    
+    @Test
+    @DisplayName("Test AIMD limiter raises the limit while latency stays flat")
+    void testAdaptiveLimiterAdditiveIncrease() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4);
+        assertEquals(1, limiter.getLimit(), "Limiter should start with one permit");
+        
+        for (int window = 0; window < 10; window++) {
+            for (int i = 0; i < AdaptiveConcurrencyLimiter.WINDOW_LISTINGS; i++) {
+                limiter.acquire();
+                limiter.release(1_000_000);
+            }
+        }
+        
+        assertEquals(4, limiter.getLimit(), "Limit should grow to the maximum and stay there");
+        assertEquals(10, limiter.getAdjustments(), "One adjustment per window expected");
+    }
+    
+    @Test
+    @DisplayName("Test AIMD limiter halves the limit when latency rises")
+    void testAdaptiveLimiterMultiplicativeDecrease() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16);
+        for (int window = 0; window < 8; window++) {
+            for (int i = 0; i < AdaptiveConcurrencyLimiter.WINDOW_LISTINGS; i++) {
+                limiter.acquire();
+                limiter.release(1_000_000);
+            }
+        }
+        assertEquals(9, limiter.getLimit(), "Eight flat windows should add eight permits");
+        
+        // Saturated storage: latency well above the baseline
+        for (int i = 0; i < AdaptiveConcurrencyLimiter.WINDOW_LISTINGS; i++) {
+            limiter.acquire();
+            limiter.release(5_000_000);
+        }
+        assertEquals(4, limiter.getLimit(), "Limit should be halved");
+        
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(0),
+            "Maximum concurrency must be positive");
+    }
+    
+    @Test
+    @DisplayName("Test AIMD limiter recovers after latency rises for good")
+    void testAdaptiveLimiterRecovers() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8);
+        for (int window = 0; window < 4; window++) {
+            for (int i = 0; i < AdaptiveConcurrencyLimiter.WINDOW_LISTINGS; i++) {
+                limiter.acquire();
+                limiter.release(1_000_000);
+            }
+        }
+        assertEquals(5, limiter.getLimit(), "Four flat windows should add four permits");
+        
+        // Storage becomes permanently slower, independent of concurrency
+        int lowest = limiter.getLimit();
+        for (int window = 0; window < 30; window++) {
+            for (int i = 0; i < AdaptiveConcurrencyLimiter.WINDOW_LISTINGS; i++) {
+                limiter.acquire();
+                limiter.release(5_000_000);
+            }
+            lowest = Math.min(lowest, limiter.getLimit());
+        }
+        
+        assertEquals(1, lowest, "The rise should first be treated as saturation");
+        assertEquals(8, limiter.getLimit(),
+            "Baseline should adapt to the new latency so the limit grows again");
+    }
+    
+    @Test
+    @DisplayName("Test AIMD limiter blocks listings beyond the limit")
+    void testAdaptiveLimiterBlocks() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8);
+        limiter.acquire();
+        
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire();
+                limiter.release(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        waiter.join(100);
+        assertTrue(waiter.isAlive(), "Second listing should wait for a permit");
+        
+        limiter.release(1);
+        waiter.join(5000);
+        assertFalse(waiter.isAlive(), "Releasing should admit the waiting listing");
+    }
+    
+    @Test
+    @DisplayName("Test adaptive pipelined search finds the same files and reports concurrency")
+    void testAdaptivePipelinedSearch() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            Files.createFile(Files.createDirectories(tempDir.resolve("many/dir" + i)).resolve("test.txt"));
+        }
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        searcher.setAdaptiveConcurrency(true);
+        Map<String, List<String>> results = searcher.searchFilesPipelined(
+            tempDir.toString(), Arrays.asList("test.txt"), 8, 2, 16);
+        
+        assertEquals(103, results.get("test.txt").size(), "Adaptive search should find every file");
+        assertTrue(searcher.getListingConcurrency() >= 1 && searcher.getListingConcurrency() <= 8,
+            "Reported concurrency should lie within the thread bound");
+        
+        RecursiveFileSearch fixed = new RecursiveFileSearch(true);
+        fixed.searchFilesPipelined(tempDir.toString(), Arrays.asList("test.txt"), 3, 1, 16);
+        assertEquals(3, fixed.getListingConcurrency(), "Fixed mode should report its thread count");
+    }
+    
+    // ==================== Query Limit Tests ====================
+    
+    /**
+     * Creates wide/dir0 .. wide/dir{count-1}, each holding a test.txt
+     */
+    private void createWideTree(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            Files.createFile(Files.createDirectories(tempDir.resolve("wide/dir" + i)).resolve("test.txt"));
+        }
+    }
+    
+    @Test
+    @DisplayName("Test first-match limit stops the traversal early")
+    void testFirstMatchPerNameSkipsTree() throws IOException {
+        createWideTree(100);
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        SearchMetrics metrics = searcher.setMetricsEnabled(true);
+        searcher.setMaxMatchesPerName(1);
+        Map<String, List<String>> results = searcher.searchFiles(
+            tempDir.toString(), Arrays.asList("test.txt"));
+        
+        assertEquals(1, results.get("test.txt").size(), "Only the first match should be kept");
+        assertEquals(1, searcher.getFileCount("test.txt"), "Only the first match should be counted");
+        assertTrue(searcher.isStoppedEarly(), "Search should report that it stopped early");
+        assertTrue(metrics.getDirectoriesVisited() < 10,
+            "Most of the 105 directories should be skipped, visited " + metrics.getDirectoriesVisited());
+    }
+    
+    @Test
+    @DisplayName("Test total match limit across names and traversal orders")
+    void testMaxTotalMatches() throws IOException {
+        createWideTree(50);
+        
+        for (RecursiveFileSearch.TraversalOrder order : RecursiveFileSearch.TraversalOrder.values()) {
+            RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+            SearchMetrics metrics = searcher.setMetricsEnabled(true);
+            searcher.setTraversalOrder(order);
+            searcher.setMaxTotalMatches(5);
+            Map<String, List<String>> results = searcher.searchFiles(
+                tempDir.toString(), Arrays.asList("test.txt", "readme.md"));
+            
+            assertEquals(5, results.get("test.txt").size() + results.get("readme.md").size(),
+                order + " search should record exactly five matches");
+            assertTrue(metrics.getDirectoriesVisited() < 55,
+                order + " search should skip part of the tree");
+        }
+    }
+    
+    @Test
+    @DisplayName("Test stop-when-all-found ends the search once every name has a match")
+    void testStopWhenAllFound() throws IOException {
+        createWideTree(100);
+        
+        // Breadth-first: every dirN is matched when wide is listed, test.txt one listing later
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        SearchMetrics metrics = searcher.setMetricsEnabled(true);
+        searcher.setTraversalOrder(RecursiveFileSearch.TraversalOrder.BREADTH_FIRST);
+        searcher.setStopWhenAllFound(true);
+        Map<String, List<String>> results = searcher.searchFiles(
+            tempDir.resolve("wide").toString(), Arrays.asList("test.txt", "dir7"));
+        
+        assertEquals(1, results.get("test.txt").size(), "test.txt should be found");
+        assertEquals(1, results.get("dir7").size(), "dir7 should be found");
+        assertEquals(2, metrics.getDirectoriesVisited(), "Search should stop after two listings");
+        
+        RecursiveFileSearch missing = new RecursiveFileSearch(true);
+        missing.setStopWhenAllFound(true);
+        missing.searchFiles(tempDir.toString(), Arrays.asList("test.txt", "absent.txt"));
+        assertFalse(missing.isStoppedEarly(), "Search must walk everything while a name is missing");
+        assertEquals(103, missing.getFileCount("test.txt"), "All matches should be kept");
+    }
+    
+    @Test
+    @DisplayName("Test query limits abort in-flight pipelined work")
+    void testPipelinedLimitAbortsWorkers() throws IOException {
+        createWideTree(200);
+        
+        RecursiveFileSearch searcher = new RecursiveFileSearch(true);
+        SearchMetrics metrics = searcher.setMetricsEnabled(true);
+        searcher.setMaxMatchesPerName(1);
+        Map<String, List<String>> results = assertTimeoutPreemptively(
+            java.time.Duration.ofSeconds(10),
+            () -> searcher.searchFilesPipelined(tempDir.toString(), Arrays.asList("test.txt"), 2, 1, 1));
+        
+        assertEquals(1, results.get("test.txt").size(), "Only the first match should be kept");
+        assertTrue(searcher.isStoppedEarly(), "Pipelined search should stop early");
+        
+        // The root listing holds the first match. Before the aggregator stops,
+        // the matcher can take the root, the 2 directories without test.txt
+        // (subdir2, wide) and 2 more matching listings, one whose match waits
+        // in the match queue and one blocked behind it; one more listing waits
+        // in the entry queue and each of the 2 listing threads holds one
+        assertTrue(metrics.getDirectoriesVisited() <= 1 + 2 + 2 + 1 + 2,
+            "At most 8 of the 205 directories should be listed, listed " + metrics.getDirectoriesVisited());
+        
+        assertThrows(IllegalArgumentException.class, () -> searcher.setMaxMatchesPerName(-1),
+            "Negative limits should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> searcher.setMaxTotalMatches(-1),
+            "Negative limits should be rejected");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * SearchCheckpoint - A snapshot of an in-progress RecursiveFileSearch
+ * 
+ * Holds everything needed to continue a search after a restart:
+ * - the search root, case sensitivity, match mode, follow-links setting
+ *   and queried file names
+ * - the directories already visited, for cycle detection when following links
+ * - the traversal frontier (directories not yet listed)
+ * - the partial foundFiles and fileCount results
+ * 
+ * Checkpoints are stored as a gzip-compressed binary file and replaced
+ * atomically, so an interruption while writing never corrupts the last
+ * good checkpoint.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+class SearchCheckpoint {
+    
+    private static final int MAGIC = 0x52465343; // "RFSC"
+    private static final int FORMAT_VERSION = 1;
+    
+    final String rootPath;
+    final boolean caseSensitive;
+    final RecursiveFileSearch.MatchMode matchMode;
+    final boolean followLinks;
+    final Collection<String> visitedDirectories;
+    final List<String> fileNames;
+    final List<String> pendingDirectories;
+    final Map<String, List<String>> foundFiles;
+    final Map<String, Integer> fileCount;
+    
+    /**
+     * Constructor for SearchCheckpoint
+     * 
+     * @param rootPath the root directory of the search
+     * @param caseSensitive whether the search is case-sensitive
+     * @param matchMode how queried names are compared with entry names
+     * @param followLinks whether symbolic links are followed
+     * @param visitedDirectories keys of directories already visited when following links
+     * @param fileNames the queried file names
+     * @param pendingDirectories absolute paths of directories not yet listed
+     * @param foundFiles partial results gathered so far
+     * @param fileCount partial counts gathered so far
+     */
+    SearchCheckpoint(String rootPath, boolean caseSensitive, RecursiveFileSearch.MatchMode matchMode,
+            boolean followLinks, Collection<String> visitedDirectories, List<String> fileNames,
+            List<String> pendingDirectories, Map<String, List<String>> foundFiles,
+            Map<String, Integer> fileCount) {
+        this.rootPath = rootPath;
+        this.caseSensitive = caseSensitive;
+        this.matchMode = matchMode;
+        this.followLinks = followLinks;
+        this.visitedDirectories = visitedDirectories;
+        this.fileNames = fileNames;
+        this.pendingDirectories = pendingDirectories;
+        this.foundFiles = foundFiles;
+        this.fileCount = fileCount;
+    }
+    
+    /**
+     * Writes the checkpoint, atomically replacing any previous one
+     * 
+     * @param file the checkpoint file
+     * @throws IOException if the checkpoint cannot be written
+     */
+    void write(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(rootPath);
+            out.writeBoolean(caseSensitive);
+            out.writeUTF(matchMode.name());
+            out.writeBoolean(followLinks);
+            writeStrings(out, fileNames);
+            writeStrings(out, pendingDirectories);
+            
+            for (String fileName : fileNames) {
+                out.writeInt(fileCount.getOrDefault(fileName, 0));
+                writeStrings(out, foundFiles.getOrDefault(fileName, Collections.emptyList()));
+            }
+            writeStrings(out, new ArrayList<>(visitedDirectories));
+        }
+        
+        try {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Reads a checkpoint previously written by write
+     * 
+     * @param file the checkpoint file
+     * @return the checkpoint
+     * @throws IOException if the file cannot be read or is not a checkpoint
+     */
+    static SearchCheckpoint read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a search checkpoint: " + file);
+            }
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported checkpoint version: " + file);
+            }
+            
+            String rootPath = in.readUTF();
+            boolean caseSensitive = in.readBoolean();
+            RecursiveFileSearch.MatchMode matchMode = RecursiveFileSearch.MatchMode.valueOf(in.readUTF());
+            boolean followLinks = in.readBoolean();
+            List<String> fileNames = readStrings(in);
+            List<String> pendingDirectories = readStrings(in);
+            
+            Map<String, List<String>> foundFiles = new HashMap<>();
+            Map<String, Integer> fileCount = new HashMap<>();
+            for (String fileName : fileNames) {
+                fileCount.put(fileName, in.readInt());
+                foundFiles.put(fileName, readStrings(in));
+            }
+            
+            List<String> visitedDirectories = readStrings(in);
+            
+            return new SearchCheckpoint(rootPath, caseSensitive, matchMode, followLinks,
+                visitedDirectories, fileNames, pendingDirectories, foundFiles, fileCount);
+            
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt search checkpoint: " + file, e);
+        } catch (EOFException e) {
+            throw new IOException("Truncated search checkpoint: " + file, e);
+        }
+    }
+    
+    /**
+     * Writes a length-prefixed list of strings
+     * 
+     * @param out the output stream
+     * @param values the strings to write
+     * @throws IOException if writing fails
+     */
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+    
+    /**
+     * Reads a length-prefixed list of strings
+     * 
+     * @param in the input stream
+     * @return the strings read
+     * @throws IOException if reading fails
+     */
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+}
\ No newline at end of file
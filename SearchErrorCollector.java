@@ -0,0 +1,177 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * SearchErrorCollector - A bounded, lock-free record of traversal failures
+ * 
+ * Replaces printing to System.err from inside the traversal loop. Every
+ * failure is counted per kind; the first capacity failures are also kept
+ * with their path so callers can inspect them programmatically. Recording
+ * never blocks, so the pipelined search can report from any thread.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+public class SearchErrorCollector {
+    
+    /** Default number of individual errors kept with their path */
+    public static final int DEFAULT_CAPACITY = 1000;
+    
+    /**
+     * Kinds of traversal failures
+     */
+    public enum Kind {
+        /** A security manager denied access to a directory listing */
+        DIRECTORY_ACCESS_DENIED,
+        /** listFiles returned null: unreadable directory or I/O error */
+        LISTING_FAILED,
+        /** A security manager denied access to a directory entry */
+        ACCESS_DENIED,
+        /** File content could not be read */
+        READ_FAILED
+    }
+    
+    /**
+     * SearchError - A single recorded failure
+     */
+    public static final class SearchError {
+        
+        private final Kind kind;
+        private final String path;
+        
+        SearchError(Kind kind, String path) {
+            this.kind = kind;
+            this.path = path;
+        }
+        
+        /** @return the kind of failure */
+        public Kind getKind() {
+            return kind;
+        }
+        
+        /** @return the path that could not be accessed */
+        public String getPath() {
+            return path;
+        }
+        
+        @Override
+        public String toString() {
+            return kind + ": " + path;
+        }
+    }
+    
+    private final AtomicReferenceArray<SearchError> errors;
+    private final AtomicInteger nextSlot;
+    private final AtomicLongArray counts;
+    
+    /**
+     * Constructor for SearchErrorCollector
+     * 
+     * @param capacity maximum number of individual errors kept
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public SearchErrorCollector(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        this.errors = new AtomicReferenceArray<>(capacity);
+        this.nextSlot = new AtomicInteger();
+        this.counts = new AtomicLongArray(Kind.values().length);
+    }
+    
+    /**
+     * Records a failure
+     * 
+     * @param kind the kind of failure
+     * @param path the path that could not be accessed
+     */
+    public void record(Kind kind, String path) {
+        counts.incrementAndGet(kind.ordinal());
+        
+        // Once full, further errors are only counted
+        if (nextSlot.get() < errors.length()) {
+            int slot = nextSlot.getAndIncrement();
+            if (slot < errors.length()) {
+                errors.set(slot, new SearchError(kind, path));
+            }
+        }
+    }
+    
+    /**
+     * Gets the recorded errors with their paths, in recording order
+     * At most capacity errors are returned; see getDroppedCount
+     * 
+     * @return list of recorded errors
+     */
+    public List<SearchError> getErrors() {
+        int size = Math.min(nextSlot.get(), errors.length());
+        List<SearchError> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            SearchError error = errors.get(i);
+            // A slot may be claimed but not yet written by a concurrent recorder
+            if (error != null) {
+                result.add(error);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Gets the number of failures of one kind
+     * 
+     * @param kind the kind of failure
+     * @return number of failures, including ones not kept individually
+     */
+    public long getCount(Kind kind) {
+        return counts.get(kind.ordinal());
+    }
+    
+    /**
+     * Gets the number of failures of every kind
+     * 
+     * @return map from kind to count, omitting kinds that never occurred
+     */
+    public Map<Kind, Long> getCounts() {
+        Map<Kind, Long> result = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            long count = getCount(kind);
+            if (count > 0) {
+                result.put(kind, count);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Gets the total number of failures
+     * 
+     * @return number of failures of all kinds
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+    
+    /**
+     * Gets the number of failures that were counted but not kept individually
+     * 
+     * @return number of dropped errors
+     */
+    public long getDroppedCount() {
+        return Math.max(0, getTotalCount() - errors.length());
+    }
+    
+    /**
+     * Checks whether any failure was recorded
+     * 
+     * @return true if no failures occurred
+     */
+    public boolean isEmpty() {
+        return getTotalCount() == 0;
+    }
+}
\ No newline at end of file
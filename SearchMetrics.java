@@ -0,0 +1,360 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * SearchMetrics - Hot-path counters and phase timings for RecursiveFileSearch
+ * 
+ * Tracks:
+ * - directories visited, entries examined, stat calls, matches and errors
+ * - bytes of result paths (one byte per char, exact for Latin-1 paths)
+ * - time spent listing, stat-ing and matching, as log2 histograms
+ * - directories per second since the search started
+ * 
+ * All counters are contention-free (LongAdder / AtomicLongArray) so the
+ * pipelined search can update them from several threads. A consistent view
+ * is taken with snapshot(); the live object can be registered as a JMX MBean.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+public class SearchMetrics implements SearchMetricsMBean {
+    
+    /**
+     * Timed phases of the traversal
+     */
+    public enum Phase {
+        /** Reading directory entries (listFiles) */
+        LISTING,
+        /** Checking whether entries are links or directories */
+        STAT,
+        /** Comparing entry names against the queries */
+        MATCHING
+    }
+    
+    /** Number of histogram buckets: bucket i counts durations in [2^i, 2^(i+1)) ns */
+    public static final int BUCKETS = 64;
+    
+    private final LongAdder directoriesVisited = new LongAdder();
+    private final LongAdder entriesExamined = new LongAdder();
+    private final LongAdder statCalls = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder resultBytes = new LongAdder();
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final AtomicLongArray[] histograms = new AtomicLongArray[Phase.values().length];
+    private volatile long startNanos = System.nanoTime();
+    
+    /**
+     * Constructor for SearchMetrics
+     */
+    public SearchMetrics() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+            histograms[i] = new AtomicLongArray(BUCKETS);
+        }
+    }
+    
+    /**
+     * Clears every counter and restarts the throughput clock
+     */
+    public void reset() {
+        directoriesVisited.reset();
+        entriesExamined.reset();
+        statCalls.reset();
+        matches.reset();
+        errors.reset();
+        resultBytes.reset();
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i].reset();
+            for (int b = 0; b < BUCKETS; b++) {
+                histograms[i].set(b, 0);
+            }
+        }
+        startNanos = System.nanoTime();
+    }
+    
+    /**
+     * Records the outcome of listing one directory
+     * 
+     * @param files the listed entries, or null if the listing failed
+     */
+    void directoryListed(Object[] files) {
+        if (files == null) {
+            errors.increment();
+            return;
+        }
+        directoriesVisited.increment();
+        entriesExamined.add(files.length);
+    }
+    
+    /**
+     * Records file system stat calls made while classifying entries
+     * 
+     * @param count number of stat calls
+     */
+    void statCalls(int count) {
+        statCalls.add(count);
+    }
+    
+    /**
+     * Records an error that did not prevent a directory from being listed
+     */
+    void errorOccurred() {
+        errors.increment();
+    }
+    
+    /**
+     * Records a matched result path
+     * 
+     * @param fullPath the matched path
+     */
+    void matchRecorded(String fullPath) {
+        matches.increment();
+        resultBytes.add(fullPath.length());
+    }
+    
+    /**
+     * Records time spent in a phase
+     * 
+     * @param phase the phase
+     * @param nanos elapsed nanoseconds
+     */
+    void recordTime(Phase phase, long nanos) {
+        int index = phase.ordinal();
+        phaseNanos[index].add(nanos);
+        histograms[index].incrementAndGet(bucketOf(nanos));
+    }
+    
+    /**
+     * Maps a duration to its log2 histogram bucket
+     * 
+     * @param nanos elapsed nanoseconds
+     * @return bucket index
+     */
+    static int bucketOf(long nanos) {
+        return nanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+    
+    /**
+     * Takes a point-in-time copy of all metrics
+     * 
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[][] histogramCopy = new long[histograms.length][BUCKETS];
+        long[] nanosCopy = new long[phaseNanos.length];
+        for (int i = 0; i < histograms.length; i++) {
+            nanosCopy[i] = phaseNanos[i].sum();
+            for (int b = 0; b < BUCKETS; b++) {
+                histogramCopy[i][b] = histograms[i].get(b);
+            }
+        }
+        
+        return new Snapshot(directoriesVisited.sum(), entriesExamined.sum(), statCalls.sum(),
+            matches.sum(), errors.sum(), resultBytes.sum(), nanosCopy, histogramCopy,
+            System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * Registers these metrics with the platform MBean server
+     * 
+     * @param objectName the JMX object name, e.g. "RecursiveFileSearch:type=SearchMetrics"
+     * @throws JMException if the name is invalid or already registered
+     */
+    public void registerMBean(String objectName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, new ObjectName(objectName));
+    }
+    
+    /**
+     * Removes these metrics from the platform MBean server
+     * 
+     * @param objectName the JMX object name used at registration
+     * @throws JMException if the name is invalid or not registered
+     */
+    public void unregisterMBean(String objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(objectName));
+    }
+    
+    @Override
+    public long getDirectoriesVisited() {
+        return directoriesVisited.sum();
+    }
+    
+    @Override
+    public long getEntriesExamined() {
+        return entriesExamined.sum();
+    }
+    
+    @Override
+    public long getStatCalls() {
+        return statCalls.sum();
+    }
+    
+    @Override
+    public long getMatches() {
+        return matches.sum();
+    }
+    
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+    
+    @Override
+    public long getResultBytes() {
+        return resultBytes.sum();
+    }
+    
+    @Override
+    public long getListingNanos() {
+        return phaseNanos[Phase.LISTING.ordinal()].sum();
+    }
+    
+    @Override
+    public long getStatNanos() {
+        return phaseNanos[Phase.STAT.ordinal()].sum();
+    }
+    
+    @Override
+    public long getMatchingNanos() {
+        return phaseNanos[Phase.MATCHING.ordinal()].sum();
+    }
+    
+    @Override
+    public double getDirectoriesPerSecond() {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed <= 0 ? 0 : directoriesVisited.sum() * 1_000_000_000.0 / elapsed;
+    }
+    
+    /**
+     * Snapshot - An immutable point-in-time copy of SearchMetrics
+     */
+    public static final class Snapshot {
+        
+        private final long directoriesVisited;
+        private final long entriesExamined;
+        private final long statCalls;
+        private final long matches;
+        private final long errors;
+        private final long resultBytes;
+        private final long[] phaseNanos;
+        private final long[][] histograms;
+        private final long elapsedNanos;
+        
+        private Snapshot(long directoriesVisited, long entriesExamined, long statCalls,
+                long matches, long errors, long resultBytes, long[] phaseNanos,
+                long[][] histograms, long elapsedNanos) {
+            this.directoriesVisited = directoriesVisited;
+            this.entriesExamined = entriesExamined;
+            this.statCalls = statCalls;
+            this.matches = matches;
+            this.errors = errors;
+            this.resultBytes = resultBytes;
+            this.phaseNanos = phaseNanos;
+            this.histograms = histograms;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        /** @return number of directories successfully listed */
+        public long getDirectoriesVisited() {
+            return directoriesVisited;
+        }
+        
+        /** @return number of directory entries examined */
+        public long getEntriesExamined() {
+            return entriesExamined;
+        }
+        
+        /** @return number of file system stat calls made */
+        public long getStatCalls() {
+            return statCalls;
+        }
+        
+        /** @return number of matches recorded */
+        public long getMatches() {
+            return matches;
+        }
+        
+        /** @return number of listing and access errors */
+        public long getErrors() {
+            return errors;
+        }
+        
+        /** @return bytes of matched result paths */
+        public long getResultBytes() {
+            return resultBytes;
+        }
+        
+        /** @return nanoseconds elapsed since the search started */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+        
+        /**
+         * Gets the total time spent in a phase
+         * 
+         * @param phase the phase
+         * @return total nanoseconds across all threads
+         */
+        public long getPhaseNanos(Phase phase) {
+            return phaseNanos[phase.ordinal()];
+        }
+        
+        /**
+         * Gets the log2 duration histogram of a phase
+         * 
+         * @param phase the phase
+         * @return copy of the bucket counts; bucket i covers [2^i, 2^(i+1)) ns
+         */
+        public long[] getHistogram(Phase phase) {
+            return histograms[phase.ordinal()].clone();
+        }
+        
+        /**
+         * Gets an upper bound for a percentile of a phase's durations
+         * 
+         * @param phase the phase
+         * @param percentile the percentile, between 0 and 100
+         * @return upper bound of the bucket holding the percentile, in nanoseconds
+         */
+        public long getPercentileNanos(Phase phase, double percentile) {
+            long[] buckets = histograms[phase.ordinal()];
+            long total = 0;
+            for (long count : buckets) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int b = 0; b < buckets.length; b++) {
+                seen += buckets[b];
+                if (seen >= rank) {
+                    return b == 63 ? Long.MAX_VALUE : (1L << (b + 1)) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+        
+        /** @return directories listed per second since the search started */
+        public double getDirectoriesPerSecond() {
+            return elapsedNanos <= 0 ? 0 : directoriesVisited * 1_000_000_000.0 / elapsedNanos;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("dirs=%d entries=%d stats=%d matches=%d errors=%d "
+                + "resultBytes=%d dirs/s=%.1f listing=%.1fms stat=%.1fms matching=%.1fms",
+                directoriesVisited, entriesExamined, statCalls, matches, errors, resultBytes,
+                getDirectoriesPerSecond(), getPhaseNanos(Phase.LISTING) / 1_000_000.0,
+                getPhaseNanos(Phase.STAT) / 1_000_000.0, getPhaseNanos(Phase.MATCHING) / 1_000_000.0);
+        }
+    }
+}
\ No newline at end of file
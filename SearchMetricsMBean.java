@@ -0,0 +1,41 @@
+/**
+ * SearchMetricsMBean - JMX management interface for SearchMetrics
+ * 
+ * Exposes the counters and phase timings of a running or finished
+ * RecursiveFileSearch to JMX clients such as jconsole.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+public interface SearchMetricsMBean {
+    
+    /** @return number of directories successfully listed */
+    long getDirectoriesVisited();
+    
+    /** @return number of directory entries examined */
+    long getEntriesExamined();
+    
+    /** @return number of file system stat calls made */
+    long getStatCalls();
+    
+    /** @return number of matches recorded */
+    long getMatches();
+    
+    /** @return number of listing and access errors */
+    long getErrors();
+    
+    /** @return bytes of matched result paths */
+    long getResultBytes();
+    
+    /** @return total nanoseconds spent listing directories */
+    long getListingNanos();
+    
+    /** @return total nanoseconds spent in stat calls */
+    long getStatNanos();
+    
+    /** @return total nanoseconds spent matching names */
+    long getMatchingNanos();
+    
+    /** @return directories listed per second since the search started */
+    double getDirectoriesPerSecond();
+}
\ No newline at end of file
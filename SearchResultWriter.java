@@ -0,0 +1,244 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SearchResultWriter - Streams search matches in a machine-readable format
+ * 
+ * Each match is written as soon as it is recorded through a large buffered
+ * writer, and a background timer flushes whatever is buffered every
+ * FLUSH_INTERVAL_MILLIS, so downstream tools see each match within a
+ * fraction of a second while the scan is still running, bursts are still
+ * written in large blocks, and the searcher does not need to hold every
+ * path. After the search, finish writes a trailer with the final counts
+ * and stops the timer.
+ * 
+ * Formats:
+ * - NDJSON: {"type":"match","name":...,"path":...} per line, then one
+ *   {"type":"summary","counts":{...},"errors":N} line
+ * - CSV: header "type,name,value", then "match,name,path" rows, then
+ *   "count,name,N" rows and an "errors,,N" row
+ * - NULL_DELIMITED: each path followed by a NUL byte (for xargs -0); no
+ *   trailer, since every record must be a path
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+public class SearchResultWriter implements MatchListener {
+    
+    /** Size of the output buffer in characters */
+    public static final int BUFFER_SIZE = 64 * 1024;
+    
+    /** Longest time a written match waits in the buffer */
+    public static final long FLUSH_INTERVAL_MILLIS = 100;
+    
+    /**
+     * Supported output formats
+     */
+    public enum Format {
+        NDJSON, CSV, NULL_DELIMITED;
+        
+        /**
+         * Parses a command-line format name such as "ndjson" or "null-delimited"
+         * 
+         * @param name the format name
+         * @return the format
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static Format parse(String name) {
+            for (Format format : values()) {
+                if (format.name().replace('_', '-').equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown output format: " + name);
+        }
+    }
+    
+    private final Format format;
+    private final Writer out;
+    private final ScheduledExecutorService flusher;
+    
+    // Guarded by this
+    private boolean unflushed;
+    private IOException flushFailure;
+    
+    /**
+     * Constructor for SearchResultWriter
+     * Writes the CSV header immediately and starts the flush timer
+     * 
+     * @param format the output format
+     * @param output the stream to write UTF-8 records to
+     */
+    public SearchResultWriter(Format format, OutputStream output) {
+        this.format = format;
+        this.out = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        
+        if (format == Format.CSV) {
+            write("type,name,value\n");
+        }
+        
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-result-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleAtFixedRate(this::flushBuffered,
+            FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Writes one match record
+     * 
+     * @param targetFileName the queried name that matched
+     * @param fullPath the absolute path of the matching file
+     * @throws UncheckedIOException if the output cannot be written
+     */
+    @Override
+    public synchronized void onMatch(String targetFileName, String fullPath) {
+        switch (format) {
+            case NDJSON:
+                write("{\"type\":\"match\",\"name\":" + jsonString(targetFileName)
+                    + ",\"path\":" + jsonString(fullPath) + "}\n");
+                break;
+            case CSV:
+                write("match," + csvField(targetFileName) + "," + csvField(fullPath) + "\n");
+                break;
+            default:
+                write(fullPath + "\0");
+                break;
+        }
+    }
+    
+    /**
+     * Writes the trailer with final counts, flushes the output and stops
+     * the flush timer
+     * 
+     * @param searcher the searcher that produced the matches
+     * @param fileNames the queried file names, in trailer order
+     * @throws UncheckedIOException if the output cannot be written
+     */
+    public synchronized void finish(RecursiveFileSearch searcher, List<String> fileNames) {
+        flusher.shutdownNow();
+        long errors = searcher.getErrors().getTotalCount();
+        Set<String> names = new LinkedHashSet<>(fileNames);
+        
+        switch (format) {
+            case NDJSON:
+                StringBuilder counts = new StringBuilder();
+                for (String name : names) {
+                    if (counts.length() > 0) {
+                        counts.append(',');
+                    }
+                    counts.append(jsonString(name)).append(':').append(searcher.getFileCount(name));
+                }
+                write("{\"type\":\"summary\",\"counts\":{" + counts + "},\"errors\":" + errors + "}\n");
+                break;
+            case CSV:
+                for (String name : names) {
+                    write("count," + csvField(name) + "," + searcher.getFileCount(name) + "\n");
+                }
+                write("errors,," + errors + "\n");
+                break;
+            default:
+                break;
+        }
+        
+        try {
+            out.flush();
+            unflushed = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Flushes records written since the last flush
+     * Runs on the flush timer; a failure is reported by the next write
+     */
+    private synchronized void flushBuffered() {
+        if (!unflushed || flushFailure != null) {
+            return;
+        }
+        try {
+            out.flush();
+            unflushed = false;
+        } catch (IOException e) {
+            flushFailure = e;
+        }
+    }
+    
+    /**
+     * Writes a record to the buffered output
+     * Callers must hold this writer's lock
+     * 
+     * @param record the record text
+     */
+    private void write(String record) {
+        if (flushFailure != null) {
+            throw new UncheckedIOException(flushFailure);
+        }
+        try {
+            out.write(record);
+            unflushed = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Quotes and escapes a string as a JSON string literal
+     * 
+     * @param value the string
+     * @return the JSON literal
+     */
+    static String jsonString(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+    
+    /**
+     * Quotes a CSV field when it contains a separator, quote or line break
+     * 
+     * @param value the field value
+     * @return the CSV field
+     */
+    static String csvField(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return "\"" + value.replace("\"", "\"\"") + "\"";
+            }
+        }
+        return value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,416 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SearchServer - A lightweight HTTP front end for RecursiveFileSearch
+ * 
+ * Specifications:
+ * - GET /search?dir=<directory>&name=<file>[&name=<file>...][&ci=true]
+ *   answers with a JSON object of matched paths, counts and error total
+ * - Identical concurrent requests are coalesced: the first one walks the
+ *   tree and every request arriving before it finishes shares its result;
+ *   directories are normalized first, so "/a" and "/a/" are identical
+ * - Listens on the loopback interface only unless another address is given,
+ *   since requests are not authenticated and may name any directory
+ * - One thread per request, virtual when the JDK provides them (21+),
+ *   otherwise from a cached pool
+ * - Directory listings are shared between searches through one
+ *   DirectoryListingCache
+ * 
+ * Responses: 200 with the result, 400 for invalid parameters, 404 if the
+ * directory does not exist, 405 for methods other than GET, 503 if the
+ * search was interrupted.
+ * 
+ * @author Muhammad Hassaan Noor for Lab Task 1
+ * @version 1.0
+ */
+public class SearchServer {
+    
+    /** Default number of directory listings kept by the shared cache */
+    public static final int DEFAULT_CACHE_ENTRIES = 10_000;
+    
+    /** Default age in milliseconds after which a cached listing is re-read */
+    public static final long DEFAULT_CACHE_TTL_MILLIS = 5_000;
+    
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final DirectoryListingCache listingCache;
+    
+    // Searches in progress, keyed by directory, case mode and sorted names
+    private final ConcurrentHashMap<List<Object>, CompletableFuture<String>> inFlight;
+    
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    
+    /**
+     * Constructor for SearchServer listening on the loopback interface
+     * The server does not accept requests until start is called
+     * 
+     * @param port the TCP port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public SearchServer(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+    
+    /**
+     * Constructor for SearchServer listening on a chosen address
+     * Binding to a non-loopback address exposes the filesystem to anyone
+     * who can reach it; requests are not authenticated
+     * 
+     * @param bindAddress the local address to listen on
+     * @param port the TCP port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public SearchServer(InetAddress bindAddress, int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        this.executor = newRequestExecutor();
+        this.listingCache = new DirectoryListingCache(DEFAULT_CACHE_ENTRIES, DEFAULT_CACHE_TTL_MILLIS);
+        this.inFlight = new ConcurrentHashMap<>();
+        
+        server.setExecutor(executor);
+        server.createContext("/search", this::handleSearch);
+    }
+    
+    /**
+     * Creates a virtual-thread-per-task executor when available
+     * Looked up reflectively so the class still runs on JDK 17
+     * 
+     * @return the executor running request handlers
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "search-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+    
+    /**
+     * Stops the server, waiting up to delaySeconds for running requests
+     * 
+     * @param delaySeconds maximum time to wait for running requests
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Gets the port the server listens on
+     * 
+     * @return the bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    /**
+     * Gets the local address the server listens on
+     * 
+     * @return the bound address, loopback unless chosen otherwise
+     */
+    public InetAddress getBindAddress() {
+        return server.getAddress().getAddress();
+    }
+    
+    /**
+     * Gets the number of search requests received
+     * 
+     * @return request count
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+    
+    /**
+     * Gets the number of tree traversals actually run
+     * 
+     * @return search count, at most the request count
+     */
+    public long getSearchCount() {
+        return searches.sum();
+    }
+    
+    /**
+     * Gets the number of requests answered by sharing another request's search
+     * 
+     * @return coalesced request count
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+    
+    /**
+     * Gets the listing cache shared by all searches
+     * 
+     * @return the shared cache
+     */
+    public DirectoryListingCache getListingCache() {
+        return listingCache;
+    }
+    
+    /**
+     * Handles GET /search
+     * 
+     * @param exchange the HTTP exchange
+     * @throws IOException if the response cannot be sent
+     */
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, error("Only GET is supported"));
+                return;
+            }
+            
+            Map<String, List<String>> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            List<String> dirs = params.getOrDefault("dir", Collections.emptyList());
+            List<String> names = params.getOrDefault("name", Collections.emptyList());
+            boolean caseSensitive = !"true".equals(first(params.get("ci")));
+            
+            if (dirs.size() != 1) {
+                respond(exchange, 400, error("Exactly one dir parameter is required"));
+                return;
+            }
+            
+            respond(exchange, 200, search(dirs.get(0), names, caseSensitive));
+            
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+        } catch (InterruptedIOException e) {
+            respond(exchange, 503, error(e.getMessage()));
+        } catch (IOException e) {
+            respond(exchange, 404, error(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    /**
+     * Runs a search, or joins an identical search already in progress
+     * 
+     * Preconditions:
+     * - same as RecursiveFileSearch.searchFiles
+     * 
+     * Postconditions:
+     * - Returns the JSON result of a traversal that was running or started
+     *   when this request arrived
+     * - Completed searches are not cached; the next request walks again
+     * - A failure of the traversal, including an Error, is rethrown to every
+     *   request that joined it
+     * 
+     * @param directoryPath the root directory to search
+     * @param fileNames list of file names to search for
+     * @param caseSensitive whether the search should be case-sensitive
+     * @return the JSON result
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws InterruptedIOException if the search or the wait is interrupted
+     * @throws IOException if the directory does not exist
+     */
+    String search(String directoryPath, List<String> fileNames, boolean caseSensitive)
+            throws IllegalArgumentException, IOException {
+        requests.increment();
+        
+        if (directoryPath == null || directoryPath.trim().isEmpty()) {
+            throw new IllegalArgumentException("Directory path cannot be null or empty");
+        }
+        String directory = Paths.get(directoryPath).toAbsolutePath().normalize().toString();
+        List<String> sortedNames = new ArrayList<>(new TreeSet<>(fileNames));
+        List<Object> key = Arrays.asList(directory, caseSensitive, sortedNames);
+        
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, mine);
+        
+        if (running == null) {
+            // This request leads: walk the tree and publish the result
+            try {
+                searches.increment();
+                mine.complete(runSearch(directory, sortedNames, caseSensitive));
+            } catch (IOException | RuntimeException e) {
+                mine.completeExceptionally(e);
+            } catch (Error e) {
+                // Wake the followers before the error unwinds this thread
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+            running = mine;
+        } else {
+            coalesced.increment();
+        }
+        
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("Search interrupted");
+            interrupted.initCause(e);
+            throw interrupted;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+    
+    /**
+     * Walks the tree for one search and formats the result
+     * 
+     * @param directoryPath the root directory to search
+     * @param fileNames sorted list of file names to search for
+     * @param caseSensitive whether the search should be case-sensitive
+     * @return the JSON result
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws IOException if the directory does not exist
+     */
+    private String runSearch(String directoryPath, List<String> fileNames, boolean caseSensitive)
+            throws IllegalArgumentException, IOException {
+        RecursiveFileSearch searcher = newSearcher(caseSensitive);
+        Map<String, List<String>> results = searcher.searchFiles(directoryPath, fileNames);
+        
+        StringBuilder json = new StringBuilder("{\"results\":{");
+        for (int i = 0; i < fileNames.size(); i++) {
+            String fileName = fileNames.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(SearchResultWriter.jsonString(fileName)).append(":[");
+            List<String> paths = results.get(fileName);
+            for (int p = 0; p < paths.size(); p++) {
+                if (p > 0) {
+                    json.append(',');
+                }
+                json.append(SearchResultWriter.jsonString(paths.get(p)));
+            }
+            json.append(']');
+        }
+        json.append("},\"errors\":").append(searcher.getErrors().getTotalCount()).append('}');
+        return json.toString();
+    }
+    
+    /**
+     * Creates the searcher used for one traversal
+     * 
+     * @param caseSensitive whether the search should be case-sensitive
+     * @return a searcher sharing this server's listing cache
+     */
+    RecursiveFileSearch newSearcher(boolean caseSensitive) {
+        RecursiveFileSearch searcher = new RecursiveFileSearch(caseSensitive);
+        searcher.setListingCache(listingCache);
+        return searcher;
+    }
+    
+    /**
+     * Parses a raw URL query string into decoded, possibly repeated, parameters
+     * 
+     * @param rawQuery the raw query, or null
+     * @return parameter values in order, keyed by name
+     */
+    static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        }
+        return params;
+    }
+    
+    /**
+     * Gets the first value of a parameter
+     * 
+     * @param values the parameter values, or null
+     * @return the first value, or null if absent
+     */
+    private static String first(List<String> values) {
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+    
+    /**
+     * Formats an error message as a JSON object
+     * 
+     * @param message the message
+     * @return the JSON error body
+     */
+    private static String error(String message) {
+        return "{\"error\":" + SearchResultWriter.jsonString(String.valueOf(message)) + "}";
+    }
+    
+    /**
+     * Sends a JSON response
+     * 
+     * @param exchange the HTTP exchange
+     * @param status the HTTP status code
+     * @param body the JSON body
+     * @throws IOException if the response cannot be sent
+     */
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    /**
+     * Main method for command-line usage
+     * 
+     * Usage: java SearchServer <port>
+     * 
+     * @param args command-line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java SearchServer <port>");
+            System.out.println("  GET /search?dir=<directory>&name=<file>[&name=<file>...][&ci=true]");
+            return;
+        }
+        
+        try {
+            SearchServer server = new SearchServer(Integer.parseInt(args[0]));
+            server.start();
+            System.out.println("Listening on " + server.getBindAddress().getHostAddress() + ":" + server.getPort());
+        } catch (NumberFormatException e) {
+            System.err.println("Error: Invalid port: " + args[0]);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -1,17 +1,44 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * StringPermutations - A utility class for generating all permutations of a string
  * 
  * Specifications:
  * - Generates all permutations using recursive and iterative approaches
+ * - Streams minimal-change orderings (Johnson-Trotter, Heap) as swaps
+ * - Generates k-length permutations and combinations lazily
+ * - Generates permutations in lexicographic order (Narayana's algorithm),
+ *   all at once, as an iterator, or as a range from a starting permutation
  * - Supports duplicate handling (include or exclude)
+ * - Writes Latin-1 permutations straight to byte sinks without building Strings
+ * - Delivers permutations in caller-provided flat char[] blocks
+ * - Processes permutations concurrently: producer threads partitioned by
+ *   prefix feed a worker pool through a bounded lock-free ring buffer
+ * - Permutes code points or grapheme clusters so surrogate pairs and
+ *   combining sequences stay intact
+ * - Stores permutations off-heap, in direct buffers or a shared mapped file
+ * - Checks membership and lexicographic rank without generating
+ * - Long runs can be cancelled, bounded by a timeout and report progress;
+ *   checks happen every CHECK_INTERVAL permutations
  * - Provides time complexity analysis
  * 
  * Time Complexity Analysis:
  * - Recursive approach: O(n! * n) where n is string length
  *   - n! permutations, each taking O(n) time to generate
  * - Iterative approach: O(n! * n) - same complexity, different implementation
+ * - Lexicographic approach: O(n! * n) for the strings; each next/previous
+ *   step is amortized O(1)
  * - Space complexity: O(n! * n) for storing all permutations
  * 
  * @author Muhammad Hassaan Noor for Lab Task 2
@@ -19,182 +46,1622 @@ import java.util.*;
  */
 public class StringPermutations {
     
+    /** Matches one extended grapheme cluster */
+    private static final Pattern GRAPHEME = Pattern.compile("\\X");
+    
+    /**
+     * Units of text that a permutation rearranges
+     */
+    public enum TextUnit {
+        /** UTF-16 chars, as the other methods do; splits surrogate pairs */
+        CHAR,
+        /** Unicode code points; keeps surrogate pairs together */
+        CODE_POINT,
+        /** Grapheme clusters; also keeps combining marks and emoji sequences together */
+        GRAPHEME
+    }
+    
+    /** Permutations produced between cancellation, timeout and progress checks */
+    public static final int CHECK_INTERVAL = 4096;
+    
+    /** Default number of blocks held by the pipeline's ring buffer */
+    public static final int DEFAULT_RING_CAPACITY = 64;
+    
     private boolean includeDuplicates;
+    private BooleanSupplier cancellation;
+    private long timeoutMillis;
+    private PermutationProgressListener progressListener;
+    
+    /**
+     * Constructor for StringPermutations
+     * 
+     * @param includeDuplicates whether to include duplicate permutations
+     */
+    public StringPermutations(boolean includeDuplicates) {
+        this.includeDuplicates = includeDuplicates;
+    }
+    
+    /**
+     * Sets a condition that cancels a running generation
+     * 
+     * Polled every CHECK_INTERVAL permutations, together with the thread's
+     * interrupt status; when either is set the generator throws
+     * CancellationException. Lazy iterators are not checked, since their
+     * consumer decides when to stop.
+     * 
+     * @param cancellation returns true once the run should stop, or null for none
+     */
+    public void setCancellation(BooleanSupplier cancellation) {
+        this.cancellation = cancellation;
+    }
+    
+    /**
+     * Sets how long a single generation may run
+     * 
+     * @param timeoutMillis maximum run time in milliseconds, or 0 for no limit
+     * @throws IllegalArgumentException if timeoutMillis is negative
+     */
+    public void setTimeout(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeout cannot be negative");
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+    
+    /**
+     * Sets the listener told about progress of each generation
+     * 
+     * @param progressListener the listener, or null for none
+     */
+    public void setProgressListener(PermutationProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+    
+    /**
+     * Generates all permutations of a string using recursion
+     * 
+     * Preconditions:
+     * - input string must not be null
+     * 
+     * Postconditions:
+     * - Returns a list of all permutations
+     * - If includeDuplicates is false, returns only unique permutations
+     * - Empty string returns list with one empty string
+     * 
+     * @param str the input string
+     * @return List of all permutations
+     * @throws IllegalArgumentException if input is null
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public List<String> generatePermutationsRecursive(String str) {
+        if (str == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        
+        List<String> result = new ArrayList<>();
+        
+        if (str.isEmpty()) {
+            result.add("");
+            return result;
+        }
+        
+        Progress progress = new Progress(factorialOrUnknown(str.length()));
+        generatePermutationsRecursiveHelper(str.toCharArray(), 0, result, progress);
+        progress.finish();
+        
+        // Remove duplicates if needed
+        if (!includeDuplicates) {
+            return new ArrayList<>(new LinkedHashSet<>(result));
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Recursive helper method for generating permutations
+     * Uses backtracking algorithm with character swapping
+     * 
+     * @param chars character array being permuted
+     * @param index current position in the array
+     * @param result list to store permutations
+     * @param progress the run's progress
+     */
+    private void generatePermutationsRecursiveHelper(char[] chars, int index, List<String> result,
+            Progress progress) {
+        // Base case: reached end of array
+        if (index == chars.length - 1) {
+            result.add(new String(chars));
+            progress.step();
+            return;
+        }
+        
+        // Recursive case: try swapping each remaining character with current position
+        for (int i = index; i < chars.length; i++) {
+            // Swap characters at index and i
+            swap(chars, index, i);
+            
+            // Recursively generate permutations for remaining characters
+            generatePermutationsRecursiveHelper(chars, index + 1, result, progress);
+            
+            // Backtrack: restore original order
+            swap(chars, index, i);
+        }
+    }
+    
+    /**
+     * Generates all permutations using an iterative approach
+     * Uses Heap's algorithm for better performance
+     * 
+     * @param str the input string
+     * @return List of all permutations
+     * @throws IllegalArgumentException if input is null
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public List<String> generatePermutationsIterative(String str) {
+        if (str == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        
+        List<String> result = new ArrayList<>();
+        
+        if (str.isEmpty()) {
+            result.add("");
+            return result;
+        }
+        
+        char[] chars = str.toCharArray();
+        Progress progress = new Progress(factorialOrUnknown(chars.length));
+        
+        result.add(new String(chars));
+        progress.step();
+        heapSwaps(chars.length, (i, j) -> {
+            swap(chars, i, j);
+            result.add(new String(chars));
+            progress.step();
+        });
+        progress.finish();
+        
+        // Remove duplicates if needed
+        if (!includeDuplicates) {
+            return new ArrayList<>(new LinkedHashSet<>(result));
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Generates all permutations of a string's characters, code points or grapheme clusters
+     * 
+     * toCharArray-based methods split surrogate pairs (emoji, CJK extension
+     * characters) and so can produce invalid strings; CODE_POINT and GRAPHEME
+     * keep such characters intact. Units are permuted in Heap's order with
+     * three representations, cheapest first:
+     * - every unit a Latin-1 char: a byte[] buffer, decoded as ISO-8859-1,
+     *   which compact strings copy without a compression scan
+     * - every unit a single char: a char[] buffer
+     * - otherwise: an array of unit strings joined per permutation
+     * 
+     * @param str the input string
+     * @param unit the unit of text to permute
+     * @return List of all permutations
+     * @throws IllegalArgumentException if input or unit is null
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public List<String> generatePermutations(String str, TextUnit unit) {
+        if (str == null || unit == null) {
+            throw new IllegalArgumentException("Input string and unit cannot be null");
+        }
+        
+        List<String> result = new ArrayList<>();
+        String[] units = splitUnits(str, unit);
+        Progress progress = new Progress(factorialOrUnknown(units.length));
+        
+        if (isLatin1Chars(units)) {
+            byte[] bytes = str.getBytes(StandardCharsets.ISO_8859_1);
+            result.add(new String(bytes, StandardCharsets.ISO_8859_1));
+            progress.step();
+            heapSwaps(bytes.length, (i, j) -> {
+                byte temp = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = temp;
+                result.add(new String(bytes, StandardCharsets.ISO_8859_1));
+                progress.step();
+            });
+        } else if (units.length == str.length()) {
+            char[] chars = str.toCharArray();
+            result.add(new String(chars));
+            progress.step();
+            heapSwaps(chars.length, (i, j) -> {
+                swap(chars, i, j);
+                result.add(new String(chars));
+                progress.step();
+            });
+        } else {
+            result.add(str);
+            progress.step();
+            heapSwaps(units.length, (i, j) -> {
+                String temp = units[i];
+                units[i] = units[j];
+                units[j] = temp;
+                
+                StringBuilder permutation = new StringBuilder(str.length());
+                for (String part : units) {
+                    permutation.append(part);
+                }
+                result.add(permutation.toString());
+                progress.step();
+            });
+        }
+        progress.finish();
+        
+        if (!includeDuplicates) {
+            return new ArrayList<>(new LinkedHashSet<>(result));
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Splits a string into the units to permute
+     * 
+     * @param str the input string
+     * @param unit the unit of text
+     * @return the units in order
+     */
+    static String[] splitUnits(String str, TextUnit unit) {
+        if (unit == TextUnit.CHAR) {
+            String[] units = new String[str.length()];
+            for (int i = 0; i < units.length; i++) {
+                units[i] = String.valueOf(str.charAt(i));
+            }
+            return units;
+        }
+        
+        if (unit == TextUnit.CODE_POINT) {
+            return str.codePoints().mapToObj(Character::toString).toArray(String[]::new);
+        }
+        
+        List<String> clusters = new ArrayList<>();
+        Matcher matcher = GRAPHEME.matcher(str);
+        while (matcher.find()) {
+            clusters.add(matcher.group());
+        }
+        return clusters.toArray(new String[0]);
+    }
+    
+    /**
+     * Checks whether every unit is a single Latin-1 character
+     * 
+     * @param units the units to check
+     * @return true if the byte[] fast path applies
+     */
+    private static boolean isLatin1Chars(String[] units) {
+        for (String unit : units) {
+            if (unit.length() != 1 || unit.charAt(0) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Counts the permutations the generators produce for a string
+     * 
+     * @param str the input string
+     * @return n! when including duplicates, otherwise the number of distinct
+     *         permutations n! / (c1! * c2! * ...)
+     * @throws IllegalArgumentException if input is null or the count overflows a long
+     */
+    public long countPermutations(String str) {
+        if (str == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        
+        try {
+            long count = 1;
+            for (int i = 2; i <= str.length(); i++) {
+                count = Math.multiplyExact(count, i);
+            }
+            return includeDuplicates ? count : count / repetitions(str);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Permutation count exceeds a long: " + str.length() + "!");
+        }
+    }
+    
+    /**
+     * Generates all permutations into fixed-width records of flat char[] blocks
+     * 
+     * Fills the caller's block with as many whole permutations as fit
+     * (batch.length / n, e.g. 4096 records for a block of 4096 * n chars)
+     * and hands it to the listener, which returns the next block to fill.
+     * No String is built. With includeDuplicates the order is that of
+     * generatePermutationsIterative; otherwise distinct permutations are
+     * produced in lexicographic order without a dedup set.
+     * 
+     * Preconditions:
+     * - batch must hold at least one record (n chars)
+     * 
+     * Postconditions:
+     * - Every block passed to the listener holds at least one record; only
+     *   the last may be partly filled
+     * 
+     * @param str the input string
+     * @param batch the first block to fill
+     * @param listener receives each filled block
+     * @return number of permutations delivered
+     * @throws IllegalArgumentException if an argument is null or batch is shorter than str
+     * @throws IllegalStateException if the listener returns a block shorter than str
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public long generatePermutationBatches(String str, char[] batch, PermutationBatchListener listener) {
+        if (str == null || batch == null || listener == null) {
+            throw new IllegalArgumentException("Input string, batch and listener cannot be null");
+        }
+        if (batch.length < str.length()) {
+            throw new IllegalArgumentException("Batch must hold at least one permutation of " + str.length() + " chars");
+        }
+        
+        char[] chars = str.toCharArray();
+        Progress progress = new Progress(countOrUnknown(str));
+        BatchFiller filler = new BatchFiller(batch, chars.length, listener);
+        
+        if (includeDuplicates) {
+            filler.add(chars);
+            progress.step();
+            heapSwaps(chars.length, (i, j) -> {
+                swap(chars, i, j);
+                filler.add(chars);
+                progress.step();
+            });
+        } else {
+            Arrays.sort(chars);
+            do {
+                filler.add(chars);
+                progress.step();
+            } while (nextPermutation(chars));
+        }
+        
+        filler.flush();
+        return progress.finish();
+    }
+    
+    /**
+     * Passes every permutation to a worker using concurrent producers and consumers
+     * 
+     * Generation is partitioned by first character across producer threads;
+     * blocks of permutations reach a pool of consumer threads through a
+     * bounded lock-free ring buffer (see PermutationPipeline), so full
+     * buffers hold producers back and memory stays bounded. Throughput of
+     * expensive workers scales with consumerThreads.
+     * 
+     * Preconditions:
+     * - producerThreads, consumerThreads and ringCapacity must be positive
+     * - worker must be safe to call from several threads at once
+     * 
+     * Postconditions:
+     * - Each permutation generatePermutationsIterative would return (each
+     *   distinct one when includeDuplicates is false) reaches the worker
+     *   exactly once, in no particular order
+     * - The cancellation condition and timeout apply; progress is not reported
+     * 
+     * @param str the input string
+     * @param worker called once per permutation from the consumer threads
+     * @param producerThreads number of generating threads
+     * @param consumerThreads number of worker threads
+     * @param ringCapacity number of blocks buffered between the stages
+     * @return number of permutations processed
+     * @throws IllegalArgumentException if an argument is null or a count is not positive
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public long processPermutationsPipelined(String str, Consumer<String> worker,
+            int producerThreads, int consumerThreads, int ringCapacity) {
+        if (str == null || worker == null) {
+            throw new IllegalArgumentException("Input string and worker cannot be null");
+        }
+        if (producerThreads <= 0 || consumerThreads <= 0) {
+            throw new IllegalArgumentException("Thread counts must be positive");
+        }
+        if (ringCapacity <= 0) {
+            throw new IllegalArgumentException("Ring capacity must be positive");
+        }
+        
+        BooleanSupplier cancelled = cancellation;
+        long deadlineNanos = timeoutMillis > 0 ? System.nanoTime() + timeoutMillis * 1_000_000 : 0;
+        PermutationPipeline pipeline = new PermutationPipeline(includeDuplicates,
+            producerThreads, consumerThreads, ringCapacity,
+            () -> (cancelled != null && cancelled.getAsBoolean())
+                || (deadlineNanos != 0 && System.nanoTime() - deadlineNanos > 0));
+        return pipeline.run(str, worker);
+    }
+    
+    /**
+     * Packs permutations into blocks and hands full blocks to a listener
+     */
+    private static final class BatchFiller {
+        
+        private final int recordLength;
+        private final PermutationBatchListener listener;
+        private char[] batch;
+        private int capacity;
+        private int filled;
+        
+        BatchFiller(char[] batch, int recordLength, PermutationBatchListener listener) {
+            this.recordLength = recordLength;
+            this.listener = listener;
+            use(batch);
+        }
+        
+        /**
+         * Copies one permutation into the current block, flushing it first if full
+         * 
+         * @param chars the permutation
+         */
+        void add(char[] chars) {
+            if (filled == capacity) {
+                flush();
+            }
+            System.arraycopy(chars, 0, batch, filled * recordLength, recordLength);
+            filled++;
+        }
+        
+        /**
+         * Hands the current block to the listener if it holds any records
+         */
+        void flush() {
+            if (filled > 0) {
+                char[] next = listener.onBatch(batch, filled);
+                if (next == null || next.length < recordLength) {
+                    throw new IllegalStateException("Listener must return a block of at least "
+                        + recordLength + " chars");
+                }
+                use(next);
+            }
+        }
+        
+        /**
+         * Starts filling a new block
+         * 
+         * @param next the block
+         */
+        private void use(char[] next) {
+            batch = next;
+            capacity = recordLength == 0 ? 1 : next.length / recordLength;
+            filled = 0;
+        }
+    }
+    
+    /**
+     * Counts the permutations the generators produce, for progress reports
+     * 
+     * @param str the input string
+     * @return countPermutations(str), or -1 if it overflows a long
+     */
+    private long countOrUnknown(String str) {
+        try {
+            return countPermutations(str);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Computes n! for progress reports
+     * 
+     * @param n the number of units
+     * @return n!, or -1 if it overflows a long
+     */
+    private static long factorialOrUnknown(int n) {
+        long factorial = 1;
+        for (int i = 2; i <= n; i++) {
+            if (factorial > Long.MAX_VALUE / i) {
+                return -1;
+            }
+            factorial *= i;
+        }
+        return factorial;
+    }
+    
+    /**
+     * Tracks one generation run: counts permutations and, every
+     * CHECK_INTERVAL of them, checks for cancellation, interruption and
+     * timeout and reports progress. Between checks a step is one increment
+     * and a mask test.
+     */
+    private final class Progress {
+        
+        private final long total;
+        private final long deadlineNanos;
+        private final BooleanSupplier cancellation;
+        private final PermutationProgressListener listener;
+        private long produced;
+        
+        /**
+         * Starts a run with the generator's current settings
+         * 
+         * @param total permutations the run will produce, or -1 if unknown
+         */
+        Progress(long total) {
+            this.total = total;
+            this.deadlineNanos = timeoutMillis > 0 ? System.nanoTime() + timeoutMillis * 1_000_000 : 0;
+            this.cancellation = StringPermutations.this.cancellation;
+            this.listener = progressListener;
+        }
+        
+        /**
+         * Records one produced permutation
+         * 
+         * @throws CancellationException if the run was cancelled, interrupted or timed out
+         */
+        void step() {
+            if ((++produced & (CHECK_INTERVAL - 1)) == 0) {
+                check();
+            }
+        }
+        
+        /**
+         * Stops the run if requested and reports progress
+         * 
+         * @throws CancellationException if the run was cancelled, interrupted or timed out
+         */
+        private void check() {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Permutation generation interrupted after " + produced);
+            }
+            if (cancellation != null && cancellation.getAsBoolean()) {
+                throw new CancellationException("Permutation generation cancelled after " + produced);
+            }
+            if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos > 0) {
+                throw new CancellationException("Permutation generation timed out after " + produced);
+            }
+            if (listener != null) {
+                listener.onProgress(produced, total);
+            }
+        }
+        
+        /**
+         * Ends the run with a final progress report
+         * 
+         * @return number of permutations produced
+         */
+        long finish() {
+            if (listener != null) {
+                listener.onProgress(produced, total);
+            }
+            return produced;
+        }
+    }
+    
+    /**
+     * Writes all permutations of a Latin-1 string to a stream as raw bytes
+     * 
+     * Each record is the permutation's bytes followed by separator. Records
+     * are assembled in a 64 KB chunk that is written whole, so no String is
+     * built and no UTF-16 compression happens. With includeDuplicates the
+     * order is that of generatePermutationsIterative; otherwise distinct
+     * permutations are written in lexicographic order without a dedup set.
+     * 
+     * @param str the input string, all characters at most U+00FF
+     * @param out the stream to write to; not flushed or closed
+     * @param separator bytes written after each permutation, possibly empty
+     * @return number of permutations written
+     * @throws IllegalArgumentException if input is null or not Latin-1
+     * @throws IOException if the stream fails
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public long writePermutationsLatin1(String str, OutputStream out, byte[] separator) throws IOException {
+        byte[] bytes = latin1Bytes(str);
+        int recordLength = bytes.length + separator.length;
+        byte[] chunk = new byte[Math.max(64 * 1024, recordLength)];
+        int[] position = new int[1];
+        
+        try {
+            long count = forEachLatin1Permutation(bytes, new Progress(countOrUnknown(str)), () -> {
+                if (position[0] + recordLength > chunk.length) {
+                    writeChunk(out, chunk, position[0]);
+                    position[0] = 0;
+                }
+                System.arraycopy(bytes, 0, chunk, position[0], bytes.length);
+                System.arraycopy(separator, 0, chunk, position[0] + bytes.length, separator.length);
+                position[0] += recordLength;
+            });
+            writeChunk(out, chunk, position[0]);
+            return count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Writes all permutations of a Latin-1 string into a ByteBuffer as raw bytes
+     * Same records and order as the OutputStream form
+     * 
+     * @param str the input string, all characters at most U+00FF
+     * @param target the buffer, written from its position onwards
+     * @param separator bytes written after each permutation, possibly empty
+     * @return number of permutations written
+     * @throws IllegalArgumentException if input is null, not Latin-1, or
+     *         target has too little space remaining
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public long writePermutationsLatin1(String str, ByteBuffer target, byte[] separator) {
+        byte[] bytes = latin1Bytes(str);
+        long count = countPermutations(str);
+        long required = count * (bytes.length + (long) separator.length);
+        if (required > target.remaining()) {
+            throw new IllegalArgumentException("Buffer needs " + required + " bytes, has " + target.remaining());
+        }
+        
+        return forEachLatin1Permutation(bytes, new Progress(count), () -> target.put(bytes).put(separator));
+    }
+    
+    /**
+     * Generates all permutations of a Latin-1 string into one byte array
+     * Same records and order as the OutputStream form
+     * 
+     * @param str the input string, all characters at most U+00FF
+     * @param separator bytes written after each permutation, possibly empty
+     * @return the concatenated records
+     * @throws IllegalArgumentException if input is null, not Latin-1, or the
+     *         output would exceed the maximum array size
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public byte[] generatePermutationsLatin1(String str, byte[] separator) {
+        long size = countPermutations(str) * (str.length() + (long) separator.length);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Output of " + size + " bytes does not fit in an array");
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        writePermutationsLatin1(str, buffer, separator);
+        return buffer.array();
+    }
+    
+    /**
+     * Generates all permutations into an off-heap store of direct buffers
+     * 
+     * Records are fixed width (one byte per character for Latin-1 input,
+     * two otherwise) and in the order of writePermutationsLatin1, so
+     * outputs of lengths 12-13 stay outside the Java heap.
+     * 
+     * @param str the input string
+     * @return the filled store
+     * @throws IllegalArgumentException if input is null or the count overflows a long
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public PermutationStore storePermutations(String str) {
+        long count = countPermutations(str);
+        PermutationStore store = PermutationStore.allocateDirect(str.length(), isLatin1(str), count);
+        fillStore(str, store, new Progress(count));
+        return store;
+    }
+    
+    /**
+     * Generates all permutations into a memory-mapped store file
+     * Other processes can read the file with PermutationStore.open
+     * 
+     * @param str the input string
+     * @param file the file to create, replaced if it exists
+     * @return the filled store; close it to flush the file
+     * @throws IllegalArgumentException if input is null or the count overflows a long
+     * @throws IOException if the file cannot be created or mapped
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public PermutationStore storePermutations(String str, Path file) throws IOException {
+        long count = countPermutations(str);
+        PermutationStore store = PermutationStore.create(file, str.length(), isLatin1(str), count);
+        try {
+            fillStore(str, store, new Progress(count));
+        } catch (RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+    
+    /**
+     * Appends every permutation of a string to an empty store
+     * 
+     * @param str the input string
+     * @param store the store, sized by countPermutations
+     * @param progress the run's progress
+     */
+    private void fillStore(String str, PermutationStore store, Progress progress) {
+        if (isLatin1(str)) {
+            byte[] bytes = latin1Bytes(str);
+            forEachLatin1Permutation(bytes, progress, () -> store.append(bytes));
+            return;
+        }
+        
+        char[] chars = str.toCharArray();
+        if (includeDuplicates) {
+            store.append(chars);
+            progress.step();
+            heapSwaps(chars.length, (i, j) -> {
+                swap(chars, i, j);
+                store.append(chars);
+                progress.step();
+            });
+        } else {
+            Arrays.sort(chars);
+            do {
+                store.append(chars);
+                progress.step();
+            } while (nextPermutation(chars));
+        }
+        progress.finish();
+    }
+    
+    /**
+     * Checks whether every character of a string fits in one Latin-1 byte
+     * 
+     * @param str the string
+     * @return true if no character is above U+00FF
+     */
+    private static boolean isLatin1(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Converts a string to Latin-1 bytes, sorted when duplicates are excluded
+     * 
+     * @param str the input string
+     * @return one byte per character
+     * @throws IllegalArgumentException if input is null or not Latin-1
+     */
+    private byte[] latin1Bytes(String str) {
+        if (str == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        
+        char[] chars = str.toCharArray();
+        for (char c : chars) {
+            if (c > 0xFF) {
+                throw new IllegalArgumentException("Input is not Latin-1: U+"
+                    + Integer.toHexString(c).toUpperCase(Locale.ROOT));
+            }
+        }
+        
+        // Sorted chars give bytes in unsigned order for the lexicographic walk
+        if (!includeDuplicates) {
+            Arrays.sort(chars);
+        }
+        return new String(chars).getBytes(StandardCharsets.ISO_8859_1);
+    }
+    
+    /**
+     * Byte engine: rearranges bytes in place through every permutation
+     * 
+     * @param bytes the bytes to permute; sorted when duplicates are excluded
+     * @param progress the run's progress
+     * @param onPermutation called after each arrangement, starting with the initial one
+     * @return number of permutations visited
+     */
+    private long forEachLatin1Permutation(byte[] bytes, Progress progress, Runnable onPermutation) {
+        onPermutation.run();
+        progress.step();
+        
+        if (includeDuplicates) {
+            heapSwaps(bytes.length, (i, j) -> {
+                byte temp = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = temp;
+                onPermutation.run();
+                progress.step();
+            });
+        } else {
+            while (nextPermutation(bytes)) {
+                onPermutation.run();
+                progress.step();
+            }
+        }
+        return progress.finish();
+    }
+    
+    /**
+     * Writes a filled part of a chunk, rethrowing failures unchecked for use in callbacks
+     * 
+     * @param out the stream
+     * @param chunk the chunk
+     * @param length number of bytes to write
+     */
+    private static void writeChunk(OutputStream out, byte[] chunk, int length) {
+        try {
+            out.write(chunk, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Rearranges bytes, compared unsigned, into the next lexicographic permutation
+     * Same algorithm as nextPermutation(char[])
+     * 
+     * @param bytes the bytes to advance, modified in place
+     * @return true if advanced; false if bytes were already descending
+     */
+    private static boolean nextPermutation(byte[] bytes) {
+        int i = bytes.length - 2;
+        while (i >= 0 && (bytes[i] & 0xFF) >= (bytes[i + 1] & 0xFF)) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        
+        int j = bytes.length - 1;
+        while ((bytes[j] & 0xFF) <= (bytes[i] & 0xFF)) {
+            j--;
+        }
+        byte temp = bytes[i];
+        bytes[i] = bytes[j];
+        bytes[j] = temp;
+        for (int from = i + 1, to = bytes.length - 1; from < to; from++, to--) {
+            temp = bytes[from];
+            bytes[from] = bytes[to];
+            bytes[to] = temp;
+        }
+        return true;
+    }
+    
+    /**
+     * Minimal-change orderings that can be streamed as swaps
+     */
+    public enum SwapOrder {
+        /** Steinhaus-Johnson-Trotter plain changes: every swap is of adjacent positions */
+        JOHNSON_TROTTER,
+        /** Heap's algorithm, the order used by generatePermutationsIterative */
+        HEAP
+    }
+    
+    /**
+     * Streams every permutation as the swap leading to it from the previous one
+     * 
+     * The first permutation is the input itself and is not reported; each of
+     * the following n! - 1 permutations is reported only as the pair of
+     * positions exchanged, so a consumer that maintains derived state (e.g.
+     * the length of a tour) can update it in O(1) per step. Positions are
+     * permuted, so repeated characters give repeated arrangements regardless
+     * of includeDuplicates.
+     * 
+     * @param length number of positions to permute
+     * @param order the minimal-change ordering to use
+     * @param listener receives each swap
+     * @return number of permutations visited, including the initial one (length!)
+     * @throws IllegalArgumentException if length is negative or order or listener is null
+     */
+    public long generateSwaps(int length, SwapOrder order, PermutationSwapListener listener) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be negative");
+        }
+        if (order == null || listener == null) {
+            throw new IllegalArgumentException("Order and listener cannot be null");
+        }
+        
+        return order == SwapOrder.HEAP ? heapSwaps(length, listener) : johnsonTrotterSwaps(length, listener);
+    }
+    
+    /**
+     * Generates the swaps of Heap's algorithm
+     * Every step exchanges position i with 0 (i even) or with a counter (i odd)
+     * 
+     * @param n number of positions
+     * @param listener receives each swap
+     * @return number of permutations visited
+     */
+    private static long heapSwaps(int n, PermutationSwapListener listener) {
+        int[] indices = new int[n];
+        long count = 1;
+        
+        int i = 0;
+        while (i < n) {
+            if (indices[i] < i) {
+                // Swap based on whether i is even or odd
+                if (i % 2 == 0) {
+                    listener.onSwap(0, i);
+                } else {
+                    listener.onSwap(indices[i], i);
+                }
+                
+                count++;
+                indices[i]++;
+                i = 0;
+            } else {
+                indices[i] = 0;
+                i++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Generates the adjacent swaps of the Steinhaus-Johnson-Trotter ordering
+     * 
+     * Uses the counter formulation of plain changes (Knuth, Algorithm 7.2.1.2P):
+     * c[j] is how far element j has travelled and o[j] its direction, so the
+     * next swap is found in amortized O(1) without searching for the largest
+     * mobile element.
+     * 
+     * @param n number of positions
+     * @param listener receives each swap
+     * @return number of permutations visited
+     */
+    private static long johnsonTrotterSwaps(int n, PermutationSwapListener listener) {
+        int[] c = new int[n + 1];
+        int[] o = new int[n + 1];
+        Arrays.fill(o, 1);
+        long count = 1;
+        
+        if (n < 2) {
+            return count;
+        }
+        
+        while (true) {
+            int j = n;
+            int s = 0;
+            int q;
+            
+            while (true) {
+                q = c[j] + o[j];
+                if (q == j) {
+                    // Element j reached its end: all permutations done once j is 1
+                    if (j == 1) {
+                        return count;
+                    }
+                    s++;
+                } else if (q >= 0) {
+                    break;
+                }
+                // Reverse j's direction and move on to the next smaller element
+                o[j] = -o[j];
+                j--;
+            }
+            
+            listener.onSwap(j - c[j] + s - 1, j - q + s - 1);
+            c[j] = q;
+            count++;
+        }
+    }
+    
+    /**
+     * Alternative recursive approach using string manipulation
+     * More intuitive but slightly less efficient due to string concatenation
+     * 
+     * @param str the input string
+     * @return List of all permutations
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public List<String> generatePermutationsRecursiveAlt(String str) {
+        if (str == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        
+        List<String> result = new ArrayList<>();
+        
+        if (str.isEmpty()) {
+            result.add("");
+            return result;
+        }
+        
+        Progress progress = new Progress(factorialOrUnknown(str.length()));
+        generatePermutationsRecursiveAltHelper("", str, result, progress);
+        progress.finish();
+        
+        if (!includeDuplicates) {
+            return new ArrayList<>(new LinkedHashSet<>(result));
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Helper method for alternative recursive approach
+     * 
+     * @param prefix the current permutation being built
+     * @param remaining the remaining characters to permute
+     * @param result list to store permutations
+     */
+    private void generatePermutationsRecursiveAltHelper(String prefix, String remaining, List<String> result,
+            Progress progress) {
+        // Base case: no more characters to add
+        if (remaining.isEmpty()) {
+            result.add(prefix);
+            progress.step();
+            return;
+        }
+        
+        // Recursive case: try each remaining character as the next character
+        for (int i = 0; i < remaining.length(); i++) {
+            String newPrefix = prefix + remaining.charAt(i);
+            String newRemaining = remaining.substring(0, i) + remaining.substring(i + 1);
+            generatePermutationsRecursiveAltHelper(newPrefix, newRemaining, result, progress);
+        }
+    }
     
     /**
-     * Constructor for StringPermutations
+     * Generates all permutations in lexicographic order
      * 
-     * @param includeDuplicates whether to include duplicate permutations
+     * Starts from the sorted characters and steps with nextPermutation, so
+     * no sort of the n! results is needed. Distinct permutations are produced
+     * directly; when includeDuplicates is true each one is repeated as often
+     * as the other methods would produce it.
+     * 
+     * @param str the input string
+     * @return List of all permutations in ascending order
+     * @throws IllegalArgumentException if input is null
+     * @throws CancellationException if the run is cancelled, interrupted or times out
      */
-    public StringPermutations(boolean includeDuplicates) {
-        this.includeDuplicates = includeDuplicates;
+    public List<String> generatePermutationsLexicographic(String str) {
+        if (str == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        
+        char[] chars = str.toCharArray();
+        Arrays.sort(chars);
+        
+        return collect(lexicographicIterator(new String(chars)), new Progress(countOrUnknown(str)));
     }
     
     /**
-     * Generates all permutations of a string using recursion
+     * Generates up to count permutations in lexicographic order from a starting permutation
      * 
      * Preconditions:
-     * - input string must not be null
+     * - start must not be null
+     * - count must not be negative
      * 
      * Postconditions:
-     * - Returns a list of all permutations
-     * - If includeDuplicates is false, returns only unique permutations
-     * - Empty string returns list with one empty string
+     * - The first element is start itself (when count > 0)
+     * - Stops early after the last (descending) permutation
      * 
-     * @param str the input string
-     * @return List of all permutations
-     * @throws IllegalArgumentException if input is null
+     * @param start the first permutation of the range
+     * @param count maximum number of permutations to return
+     * @return List of permutations in ascending order
+     * @throws IllegalArgumentException if start is null or count is negative
      */
-    public List<String> generatePermutationsRecursive(String str) {
-        if (str == null) {
-            throw new IllegalArgumentException("Input string cannot be null");
+    public List<String> generatePermutationRange(String start, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
         }
         
         List<String> result = new ArrayList<>();
+        Iterator<String> iterator = lexicographicIterator(start);
+        while (result.size() < count && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+    
+    /**
+     * Creates an iterator over permutations in lexicographic order
+     * 
+     * Produces one permutation per call to next, so arbitrarily long inputs
+     * can be consumed without storing n! strings. Pass the sorted string to
+     * iterate over every permutation.
+     * 
+     * @param start the first permutation to return
+     * @return iterator from start to the last (descending) permutation
+     * @throws IllegalArgumentException if start is null
+     */
+    public Iterator<String> lexicographicIterator(String start) {
+        if (start == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        return new LexicographicIterator(start.toCharArray(),
+            includeDuplicates ? repetitions(start) : 1);
+    }
+    
+    /**
+     * Iterator stepping through permutations with nextPermutation
+     */
+    private static final class LexicographicIterator implements Iterator<String> {
         
-        if (str.isEmpty()) {
-            result.add("");
-            return result;
+        private final char[] chars;
+        private final long repetitions;
+        private long repeated;
+        private boolean hasNext;
+        
+        LexicographicIterator(char[] chars, long repetitions) {
+            this.chars = chars;
+            this.repetitions = repetitions;
+            this.hasNext = true;
         }
         
-        generatePermutationsRecursiveHelper(str.toCharArray(), 0, result);
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
         
-        // Remove duplicates if needed
-        if (!includeDuplicates) {
-            return new ArrayList<>(new LinkedHashSet<>(result));
+        @Override
+        public String next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            
+            String current = new String(chars);
+            if (++repeated == repetitions) {
+                repeated = 0;
+                hasNext = nextPermutation(chars);
+            }
+            return current;
+        }
+    }
+    
+    /**
+     * Checks whether a candidate is a permutation of a string without generating any
+     * 
+     * Compares character counts: a 256-entry table when both strings are
+     * Latin-1, otherwise their sorted-character signatures.
+     * 
+     * @param str the input string
+     * @param candidate the string to check
+     * @return true if candidate uses exactly the characters of str
+     * @throws IllegalArgumentException if either string is null
+     */
+    public static boolean isPermutation(String str, String candidate) {
+        if (str == null || candidate == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        if (str.length() != candidate.length()) {
+            return false;
         }
         
-        return result;
+        int[] counts = new int[256];
+        for (int i = 0; i < str.length(); i++) {
+            char a = str.charAt(i);
+            char b = candidate.charAt(i);
+            if (a > 0xFF || b > 0xFF) {
+                return AnagramIndex.signature(str).equals(AnagramIndex.signature(candidate));
+            }
+            counts[a]++;
+            counts[b]--;
+        }
+        for (int count : counts) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
-     * Recursive helper method for generating permutations
-     * Uses backtracking algorithm with character swapping
+     * Finds the position of a permutation in generatePermutationsLexicographic order
      * 
-     * @param chars character array being permuted
-     * @param index current position in the array
-     * @param result list to store permutations
+     * For each position, counts the arrangements of the remaining characters
+     * that start with a smaller character, updating the multinomial count
+     * incrementally. O(n * d) for d distinct characters; nothing is generated.
+     * 
+     * Postconditions:
+     * - Returns -1 if candidate is not a permutation of str
+     * - With includeDuplicates, returns the first of the candidate's repeated positions
+     * 
+     * @param str the input string
+     * @param candidate the permutation to locate
+     * @return zero-based index, or -1 if candidate is not a permutation
+     * @throws IllegalArgumentException if either string is null or the index overflows a long
      */
-    private void generatePermutationsRecursiveHelper(char[] chars, int index, List<String> result) {
-        // Base case: reached end of array
-        if (index == chars.length - 1) {
-            result.add(new String(chars));
-            return;
+    public long lexicographicRank(String str, String candidate) {
+        if (!isPermutation(str, candidate)) {
+            return -1;
         }
         
-        // Recursive case: try swapping each remaining character with current position
-        for (int i = index; i < chars.length; i++) {
-            // Swap characters at index and i
-            swap(chars, index, i);
-            
-            // Recursively generate permutations for remaining characters
-            generatePermutationsRecursiveHelper(chars, index + 1, result);
+        try {
+            // Count the distinct arrangements of all characters as they are added
+            TreeMap<Character, Integer> counts = new TreeMap<>();
+            long arrangements = 1;
+            for (int i = 0; i < str.length(); i++) {
+                int count = counts.merge(str.charAt(i), 1, Integer::sum);
+                arrangements = scaleExact(arrangements, i + 1, count);
+            }
             
-            // Backtrack: restore original order
-            swap(chars, index, i);
+            long rank = 0;
+            for (int i = 0, remaining = str.length(); i < candidate.length(); i++, remaining--) {
+                char c = candidate.charAt(i);
+                for (Map.Entry<Character, Integer> smaller : counts.headMap(c).entrySet()) {
+                    rank = Math.addExact(rank, scaleExact(arrangements, smaller.getValue(), remaining));
+                }
+                
+                int count = counts.get(c);
+                arrangements = scaleExact(arrangements, count, remaining);
+                if (count == 1) {
+                    counts.remove(c);
+                } else {
+                    counts.put(c, count - 1);
+                }
+            }
+            return includeDuplicates ? Math.multiplyExact(rank, repetitions(str)) : rank;
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Permutation index exceeds a long: " + str.length() + " characters");
         }
     }
     
     /**
-     * Generates all permutations using an iterative approach
-     * Uses Heap's algorithm for better performance
+     * Computes value * numerator / denominator for an exact quotient
+     * 
+     * Divides before multiplying: with g = gcd(numerator, denominator),
+     * denominator / g divides value, so no intermediate overflows unless
+     * the result does.
+     * 
+     * @param value the value to scale
+     * @param numerator the multiplier
+     * @param denominator the divisor
+     * @return the scaled value
+     * @throws ArithmeticException if the result overflows a long
+     */
+    private static long scaleExact(long value, int numerator, int denominator) {
+        int a = numerator;
+        int b = denominator;
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return Math.multiplyExact(value / (denominator / a), numerator / a);
+    }
+    
+    /**
+     * Counts how often each distinct permutation occurs among all n! orderings
      * 
      * @param str the input string
-     * @return List of all permutations
-     * @throws IllegalArgumentException if input is null
+     * @return product of the factorials of each character's count
      */
-    public List<String> generatePermutationsIterative(String str) {
-        if (str == null) {
-            throw new IllegalArgumentException("Input string cannot be null");
+    private static long repetitions(String str) {
+        Map<Character, Integer> counts = new HashMap<>();
+        long repetitions = 1;
+        for (int i = 0; i < str.length(); i++) {
+            int count = counts.merge(str.charAt(i), 1, Integer::sum);
+            repetitions *= count;
+        }
+        return repetitions;
+    }
+    
+    /**
+     * Rearranges characters into the next permutation in lexicographic order
+     * 
+     * Narayana's algorithm: find the rightmost ascent chars[i] < chars[i + 1],
+     * swap chars[i] with the rightmost larger character after it, then
+     * reverse the descending suffix. Equal characters are handled, so
+     * repeated calls visit each distinct permutation once. Amortized O(1)
+     * over a full sequence of steps, O(n) worst case.
+     * 
+     * @param chars the permutation to advance, modified in place
+     * @return true if advanced; false if chars was already the last
+     *         (descending) permutation, in which case it is unchanged
+     */
+    public static boolean nextPermutation(char[] chars) {
+        int i = chars.length - 2;
+        while (i >= 0 && chars[i] >= chars[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
         }
         
-        List<String> result = new ArrayList<>();
-        
-        if (str.isEmpty()) {
-            result.add("");
-            return result;
+        int j = chars.length - 1;
+        while (chars[j] <= chars[i]) {
+            j--;
+        }
+        swap(chars, i, j);
+        reverse(chars, i + 1, chars.length - 1);
+        return true;
+    }
+    
+    /**
+     * Rearranges characters into the previous permutation in lexicographic order
+     * Mirror image of nextPermutation
+     * 
+     * @param chars the permutation to step back, modified in place
+     * @return true if stepped back; false if chars was already the first
+     *         (ascending) permutation, in which case it is unchanged
+     */
+    public static boolean previousPermutation(char[] chars) {
+        int i = chars.length - 2;
+        while (i >= 0 && chars[i] <= chars[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
         }
         
-        char[] chars = str.toCharArray();
-        int n = chars.length;
-        int[] indices = new int[n];
+        int j = chars.length - 1;
+        while (chars[j] >= chars[i]) {
+            j--;
+        }
+        swap(chars, i, j);
+        reverse(chars, i + 1, chars.length - 1);
+        return true;
+    }
+    
+    /**
+     * Generates all k-length permutations (nPk) of a string's characters
+     * 
+     * Only k-length arrangements are built; full n-length permutations are
+     * never generated and truncated. With includeDuplicates, equal
+     * arrangements are adjacent, each repeated as often as distinct
+     * character positions produce it.
+     * 
+     * @param str the input string
+     * @param k the length of each arrangement
+     * @return List of k-permutations in lexicographic (string) order
+     * @throws IllegalArgumentException if input is null or k is not in [0, length]
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public List<String> generateKPermutations(String str, int k) {
+        return collect(kPermutationIterator(str, k), new Progress(-1));
+    }
+    
+    /**
+     * Creates a lazy iterator over the k-length permutations of a string's characters
+     * 
+     * Steps the first k positions of a sorted key array, in which equal
+     * characters share a key: reversing the tail after position k and
+     * taking the next full permutation yields the next distinct k-prefix,
+     * so each step is O(n) at most. Without includeDuplicates each distinct
+     * arrangement appears once. With it, each is repeated as often as
+     * distinct character positions produce it (the product of
+     * c!/(c-u)! over characters occurring c times and used u times),
+     * giving n!/(n-k)! arrangements in string order.
+     * 
+     * @param str the input string
+     * @param k the length of each arrangement
+     * @return iterator over k-permutations in lexicographic (string) order
+     * @throws IllegalArgumentException if input is null or k is not in [0, length]
+     */
+    public Iterator<String> kPermutationIterator(String str, int k) {
+        char[] sorted = sortedCharacters(str, k);
+        int[] keys = selectionKeys(sorted, false);
         
-        result.add(new String(chars));
+        // Occurrences of each character, indexed by its key
+        int[] occurrences = new int[keys.length];
+        for (int key : keys) {
+            occurrences[key]++;
+        }
         
-        int i = 0;
-        while (i < n) {
-            if (indices[i] < i) {
-                // Swap based on whether i is even or odd
-                if (i % 2 == 0) {
-                    swap(chars, 0, i);
-                } else {
-                    swap(chars, indices[i], i);
+        return new Iterator<String>() {
+            private boolean hasNext = true;
+            private String current;
+            private long repeats;
+            
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+            
+            @Override
+            public String next() {
+                if (!hasNext) {
+                    throw new NoSuchElementException();
                 }
                 
-                result.add(new String(chars));
-                indices[i]++;
-                i = 0;
+                if (repeats == 0) {
+                    current = keysToString(sorted, keys, k);
+                    repeats = includeDuplicates ? multiplicity() : 1;
+                }
+                if (--repeats == 0) {
+                    reverse(keys, k, keys.length - 1);
+                    hasNext = nextPermutation(keys);
+                }
+                return current;
+            }
+            
+            private long multiplicity() {
+                int[] used = new int[keys.length];
+                long count = 1;
+                for (int i = 0; i < k; i++) {
+                    count *= occurrences[keys[i]] - used[keys[i]]++;
+                }
+                return count;
+            }
+        };
+    }
+    
+    /**
+     * Generates all k-length combinations of a string's characters
+     * 
+     * @param str the input string
+     * @param k the size of each combination
+     * @return List of combinations, each with its characters in sorted order
+     * @throws IllegalArgumentException if input is null or k is not in [0, length]
+     * @throws CancellationException if the run is cancelled, interrupted or times out
+     */
+    public List<String> generateCombinations(String str, int k) {
+        return collect(combinationIterator(str, k), new Progress(-1));
+    }
+    
+    /**
+     * Creates a lazy iterator over the k-length combinations of a string's characters
+     * 
+     * A combination is a set of k positions into the sorted characters,
+     * advanced in lexicographic order. With includeDuplicates every set of
+     * positions is produced (n choose k results); otherwise a position only
+     * ever moves to the first occurrence of a larger character, so each
+     * distinct sub-multiset appears once.
+     * 
+     * @param str the input string
+     * @param k the size of each combination
+     * @return iterator over combinations in lexicographic order
+     * @throws IllegalArgumentException if input is null or k is not in [0, length]
+     */
+    public Iterator<String> combinationIterator(String str, int k) {
+        char[] sorted = sortedCharacters(str, k);
+        int[] keys = selectionKeys(sorted, includeDuplicates);
+        int n = sorted.length;
+        
+        // nextLarger[i]: first position after i holding a larger key, or n
+        int[] nextLarger = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            if (i + 1 == n) {
+                nextLarger[i] = n;
             } else {
-                indices[i] = 0;
-                i++;
+                nextLarger[i] = keys[i + 1] > keys[i] ? i + 1 : nextLarger[i + 1];
             }
         }
         
-        // Remove duplicates if needed
-        if (!includeDuplicates) {
-            return new ArrayList<>(new LinkedHashSet<>(result));
+        int[] positions = new int[k];
+        for (int i = 0; i < k; i++) {
+            positions[i] = i;
         }
         
-        return result;
+        return new Iterator<String>() {
+            private boolean hasNext = true;
+            
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+            
+            @Override
+            public String next() {
+                if (!hasNext) {
+                    throw new NoSuchElementException();
+                }
+                
+                String current = keysToString(sorted, positions, k);
+                hasNext = advance();
+                return current;
+            }
+            
+            private boolean advance() {
+                for (int i = k - 1; i >= 0; i--) {
+                    int j = nextLarger[positions[i]];
+                    // Enough characters must remain after j for the later positions
+                    if (j <= n - (k - i)) {
+                        for (int m = i; m < k; m++) {
+                            positions[m] = j + (m - i);
+                        }
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
     }
     
     /**
-     * Alternative recursive approach using string manipulation
-     * More intuitive but slightly less efficient due to string concatenation
+     * Validates a selection size and returns the sorted characters
      * 
      * @param str the input string
-     * @return List of all permutations
+     * @param k the selection size
+     * @return the characters of str in ascending order
+     * @throws IllegalArgumentException if input is null or k is not in [0, length]
      */
-    public List<String> generatePermutationsRecursiveAlt(String str) {
+    private static char[] sortedCharacters(String str, int k) {
         if (str == null) {
             throw new IllegalArgumentException("Input string cannot be null");
         }
-        
-        List<String> result = new ArrayList<>();
-        
-        if (str.isEmpty()) {
-            result.add("");
-            return result;
+        if (k < 0 || k > str.length()) {
+            throw new IllegalArgumentException("k must be between 0 and the string length");
         }
         
-        generatePermutationsRecursiveAltHelper("", str, result);
-        
-        if (!includeDuplicates) {
-            return new ArrayList<>(new LinkedHashSet<>(result));
+        char[] sorted = str.toCharArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+    
+    /**
+     * Assigns each sorted character the key the selection generators permute
+     * 
+     * @param sorted the characters in ascending order
+     * @param byPosition whether every position gets its own key
+     * @return position keys if byPosition, otherwise the index of each
+     *         character's first occurrence
+     */
+    private static int[] selectionKeys(char[] sorted, boolean byPosition) {
+        int[] keys = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = byPosition || i == 0 || sorted[i] != sorted[i - 1] ? i : keys[i - 1];
         }
-        
+        return keys;
+    }
+    
+    /**
+     * Builds the string selected by the first k keys
+     * 
+     * @param sorted the characters in ascending order
+     * @param keys indices into sorted
+     * @param k number of keys to use
+     * @return the selected characters as a string
+     */
+    private static String keysToString(char[] sorted, int[] keys, int k) {
+        char[] chars = new char[k];
+        for (int i = 0; i < k; i++) {
+            chars[i] = sorted[keys[i]];
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * Drains an iterator into a list
+     * 
+     * @param iterator the iterator
+     * @param progress the run's progress
+     * @return List of the remaining elements
+     */
+    private static List<String> collect(Iterator<String> iterator, Progress progress) {
+        List<String> result = new ArrayList<>();
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+            progress.step();
+        }
+        progress.finish();
         return result;
     }
     
     /**
-     * Helper method for alternative recursive approach
+     * Rearranges integer keys into the next permutation in lexicographic order
+     * Same algorithm as nextPermutation(char[])
      * 
-     * @param prefix the current permutation being built
-     * @param remaining the remaining characters to permute
-     * @param result list to store permutations
+     * @param keys the keys to advance, modified in place
+     * @return true if advanced; false if keys were already descending
      */
-    private void generatePermutationsRecursiveAltHelper(String prefix, String remaining, List<String> result) {
-        // Base case: no more characters to add
-        if (remaining.isEmpty()) {
-            result.add(prefix);
-            return;
+    private static boolean nextPermutation(int[] keys) {
+        int i = keys.length - 2;
+        while (i >= 0 && keys[i] >= keys[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
         }
         
-        // Recursive case: try each remaining character as the next character
-        for (int i = 0; i < remaining.length(); i++) {
-            String newPrefix = prefix + remaining.charAt(i);
-            String newRemaining = remaining.substring(0, i) + remaining.substring(i + 1);
-            generatePermutationsRecursiveAltHelper(newPrefix, newRemaining, result);
+        int j = keys.length - 1;
+        while (keys[j] <= keys[i]) {
+            j--;
+        }
+        int temp = keys[i];
+        keys[i] = keys[j];
+        keys[j] = temp;
+        reverse(keys, i + 1, keys.length - 1);
+        return true;
+    }
+    
+    /**
+     * Reverses a range of an integer array in place
+     * 
+     * @param keys the integer array
+     * @param from first index of the range
+     * @param to last index of the range
+     */
+    private static void reverse(int[] keys, int from, int to) {
+        while (from < to) {
+            int temp = keys[from];
+            keys[from++] = keys[to];
+            keys[to--] = temp;
+        }
+    }
+    
+    /**
+     * Reverses a range of a character array in place
+     * 
+     * @param chars the character array
+     * @param from first index of the range
+     * @param to last index of the range
+     */
+    private static void reverse(char[] chars, int from, int to) {
+        while (from < to) {
+            swap(chars, from++, to--);
         }
     }
     
@@ -205,7 +1672,7 @@ public class StringPermutations {
      * @param i first index
      * @param j second index
      */
-    private void swap(char[] chars, int i, int j) {
+    private static void swap(char[] chars, int i, int j) {
         char temp = chars[i];
         chars[i] = chars[j];
         chars[j] = temp;
@@ -266,19 +1733,29 @@ public class StringPermutations {
     /**
      * Main method for command-line usage
      * 
-     * Usage: java StringPermutations <string> [-d] [-c] [-i]
+     * Usage: java StringPermutations <string> [-d] [-c] [-i] [-l] [-t] [-k <n>] [-m <n>] [-p <n>]
      *   -d: exclude duplicate permutations
      *   -c: compare performance of recursive vs iterative
      *   -i: use iterative algorithm
+     *   -l: generate in lexicographic order
+     *   -t: print the Johnson-Trotter swap sequence
+     *   -k: generate permutations of length n only
+     *   -m: generate combinations of n characters
+     *   -p: count permutations through the pipeline with n worker threads
      * 
      * @param args command-line arguments
      */
     public static void main(String[] args) {
         if (args.length < 1) {
-            System.out.println("Usage: java StringPermutations <string> [-d] [-c] [-i]");
+            System.out.println("Usage: java StringPermutations <string> [-d] [-c] [-i] [-l] [-t] [-k <n>] [-m <n>] [-p <n>]");
             System.out.println("  -d: Exclude duplicate permutations");
             System.out.println("  -c: Compare performance (recursive vs iterative)");
             System.out.println("  -i: Use iterative algorithm");
+            System.out.println("  -l: Generate in lexicographic order");
+            System.out.println("  -t: Print the Johnson-Trotter swap sequence");
+            System.out.println("  -k <n>: Generate permutations of length n only");
+            System.out.println("  -m <n>: Generate combinations of n characters");
+            System.out.println("  -p <n>: Count permutations through the pipeline with n worker threads");
             return;
         }
         
@@ -286,6 +1763,11 @@ public class StringPermutations {
         boolean includeDuplicates = true;
         boolean compare = false;
         boolean useIterative = false;
+        boolean lexicographic = false;
+        boolean swaps = false;
+        int permutationLength = -1;
+        int combinationSize = -1;
+        int workerThreads = -1;
         
         // Parse options
         for (int i = 1; i < args.length; i++) {
@@ -295,6 +1777,26 @@ public class StringPermutations {
                 compare = true;
             } else if (args[i].equals("-i")) {
                 useIterative = true;
+            } else if (args[i].equals("-l")) {
+                lexicographic = true;
+            } else if (args[i].equals("-t")) {
+                swaps = true;
+            } else if ((args[i].equals("-k") || args[i].equals("-m") || args[i].equals("-p"))
+                    && i + 1 < args.length) {
+                try {
+                    int size = Integer.parseInt(args[i + 1]);
+                    if (args[i].equals("-k")) {
+                        permutationLength = size;
+                    } else if (args[i].equals("-m")) {
+                        combinationSize = size;
+                    } else {
+                        workerThreads = size;
+                    }
+                    i++;
+                } catch (NumberFormatException e) {
+                    System.err.println("Error: Invalid size: " + args[i + 1]);
+                    return;
+                }
             }
         }
         
@@ -303,10 +1805,33 @@ public class StringPermutations {
             
             if (compare) {
                 generator.comparePerformance(input);
+            } else if (swaps) {
+                char[] chars = input.toCharArray();
+                System.out.println("start: " + input);
+                long count = generator.generateSwaps(chars.length, SwapOrder.JOHNSON_TROTTER, (a, b) -> {
+                    swap(chars, a, b);
+                    System.out.println("swap " + a + " " + b + ": " + new String(chars));
+                });
+                System.out.println("Total count: " + count);
+            } else if (workerThreads >= 0) {
+                long start = System.nanoTime();
+                long count = generator.processPermutationsPipelined(input, permutation -> { },
+                    1, workerThreads, DEFAULT_RING_CAPACITY);
+                System.out.println("Total count: " + count);
+                System.out.println("Time: " + (System.nanoTime() - start) / 1_000_000.0 + " ms");
             } else {
                 List<String> permutations;
                 
-                if (useIterative) {
+                if (permutationLength >= 0) {
+                    System.out.println("Generating " + permutationLength + "-permutations...");
+                    permutations = generator.generateKPermutations(input, permutationLength);
+                } else if (combinationSize >= 0) {
+                    System.out.println("Generating " + combinationSize + "-combinations...");
+                    permutations = generator.generateCombinations(input, combinationSize);
+                } else if (lexicographic) {
+                    System.out.println("Using lexicographic algorithm...");
+                    permutations = generator.generatePermutationsLexicographic(input);
+                } else if (useIterative) {
                     System.out.println("Using iterative algorithm...");
                     permutations = generator.generatePermutationsIterative(input);
                 } else {
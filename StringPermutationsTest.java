@@ -626,4 +626,724 @@ public class StringPermutationsTest {
             assertTrue(perm.contains("D"), "Should contain D");
         }
     }
+    
+    // ==================== Lexicographic Order Tests ====================
+    
+    @Test
+    @DisplayName("Test lexicographic generation is sorted and complete")
+    void testLexicographicSorted() {
+        StringPermutations generator = new StringPermutations(true);
+        List<String> result = generator.generatePermutationsLexicographic("DBCA");
+        
+        List<String> expected = new ArrayList<>(generator.generatePermutationsRecursive("DBCA"));
+        Collections.sort(expected);
+        assertEquals(expected, result, "Output should equal the sorted recursive output");
+        assertEquals("ABCD", result.get(0), "First permutation should be ascending");
+        assertEquals("DCBA", result.get(23), "Last permutation should be descending");
+    }
+    
+    @Test
+    @DisplayName("Test lexicographic generation with repeated characters")
+    void testLexicographicDuplicates() {
+        List<String> expected = new ArrayList<>(new StringPermutations(true).generatePermutationsRecursive("ABAB"));
+        Collections.sort(expected);
+        
+        assertEquals(expected, new StringPermutations(true).generatePermutationsLexicographic("ABAB"),
+            "Duplicates should be repeated as in the other methods");
+        assertEquals(Arrays.asList("AABB", "ABAB", "ABBA", "BAAB", "BABA", "BBAA"),
+            new StringPermutations(false).generatePermutationsLexicographic("ABAB"),
+            "Unique mode should give each distinct permutation once, in order");
+        assertEquals(Arrays.asList(""), new StringPermutations(true).generatePermutationsLexicographic(""),
+            "Empty string should give one empty permutation");
+    }
+    
+    @Test
+    @DisplayName("Test next and previous permutation step in place")
+    void testNextAndPreviousPermutation() {
+        char[] chars = "ACB".toCharArray();
+        
+        assertTrue(StringPermutations.nextPermutation(chars), "ACB has a successor");
+        assertEquals("BAC", new String(chars), "Successor of ACB is BAC");
+        assertTrue(StringPermutations.previousPermutation(chars), "BAC has a predecessor");
+        assertEquals("ACB", new String(chars), "Predecessor of BAC is ACB");
+        
+        char[] last = "CBA".toCharArray();
+        assertFalse(StringPermutations.nextPermutation(last), "CBA is the last permutation");
+        assertEquals("CBA", new String(last), "Last permutation should be left unchanged");
+        char[] first = "AAB".toCharArray();
+        assertFalse(StringPermutations.previousPermutation(first), "AAB is the first permutation");
+        
+        // Stepping forward then back through the whole sequence returns to the start
+        char[] walk = "ABBCD".toCharArray();
+        int steps = 0;
+        while (StringPermutations.nextPermutation(walk)) {
+            steps++;
+        }
+        assertEquals(59, steps, "5!/2! - 1 steps expected");
+        while (StringPermutations.previousPermutation(walk)) {
+            steps--;
+        }
+        assertEquals(0, steps, "Stepping back should undo every step");
+        assertEquals("ABBCD", new String(walk), "Should be back at the first permutation");
+    }
+    
+    @Test
+    @DisplayName("Test iterator and range generation from a starting permutation")
+    void testLexicographicIteratorAndRange() {
+        StringPermutations generator = new StringPermutations(false);
+        
+        assertEquals(Arrays.asList("BAC", "BCA", "CAB"), generator.generatePermutationRange("BAC", 3),
+            "Range should start at the given permutation");
+        assertEquals(Arrays.asList("CAB", "CBA"), generator.generatePermutationRange("CAB", 10),
+            "Range should stop after the last permutation");
+        assertTrue(generator.generatePermutationRange("ABC", 0).isEmpty(), "Zero count gives nothing");
+        assertThrows(IllegalArgumentException.class, () -> generator.generatePermutationRange("ABC", -1),
+            "Negative count should be rejected");
+        
+        Iterator<String> iterator = generator.lexicographicIterator("ABCDEFGHIJKLMNOPQRST");
+        assertEquals("ABCDEFGHIJKLMNOPQRST", iterator.next(), "Iterator should start at the input");
+        assertEquals("ABCDEFGHIJKLMNOPQRTS", iterator.next(), "Iterator should step lazily");
+        
+        Iterator<String> single = generator.lexicographicIterator("A");
+        single.next();
+        assertFalse(single.hasNext(), "Single character has one permutation");
+        assertThrows(NoSuchElementException.class, single::next, "Exhausted iterator should throw");
+    }
+    
+    // ==================== Minimal-Change Swap Tests ====================
+    
+    /**
+     * Applies a swap sequence to a string, collecting every arrangement visited
+     */
+    private List<String> applySwaps(String input, StringPermutations.SwapOrder order,
+            List<int[]> swaps) {
+        char[] chars = input.toCharArray();
+        List<String> visited = new ArrayList<>();
+        visited.add(input);
+        long count = new StringPermutations(true).generateSwaps(chars.length, order, (i, j) -> {
+            swaps.add(new int[] {i, j});
+            char temp = chars[i];
+            chars[i] = chars[j];
+            chars[j] = temp;
+            visited.add(new String(chars));
+        });
+        assertEquals(visited.size(), count, "Returned count should include the initial arrangement");
+        return visited;
+    }
+    
+    @Test
+    @DisplayName("Test Johnson-Trotter visits every permutation with adjacent swaps")
+    void testJohnsonTrotterSwaps() {
+        List<int[]> swaps = new ArrayList<>();
+        List<String> visited = applySwaps("ABCDE", StringPermutations.SwapOrder.JOHNSON_TROTTER, swaps);
+        
+        assertEquals(120, visited.size(), "Should visit 5! arrangements");
+        assertEquals(120, new HashSet<>(visited).size(), "Every arrangement should be distinct");
+        for (int[] swap : swaps) {
+            assertEquals(1, Math.abs(swap[0] - swap[1]), "Every swap should be adjacent");
+        }
+        assertEquals(Arrays.asList("ABC", "ACB", "CAB", "CBA", "BCA", "BAC"),
+            applySwaps("ABC", StringPermutations.SwapOrder.JOHNSON_TROTTER, new ArrayList<>()),
+            "Should follow the plain-changes order");
+    }
+    
+    @Test
+    @DisplayName("Test Heap swaps reproduce generatePermutationsIterative")
+    void testHeapSwapsMatchIterative() {
+        List<String> visited = applySwaps("ABCD", StringPermutations.SwapOrder.HEAP, new ArrayList<>());
+        
+        assertEquals(new StringPermutations(true).generatePermutationsIterative("ABCD"), visited,
+            "Heap swaps should replay the iterative order");
+    }
+    
+    @Test
+    @DisplayName("Test swap generation edge cases")
+    void testSwapEdgeCases() {
+        StringPermutations generator = new StringPermutations(true);
+        for (StringPermutations.SwapOrder order : StringPermutations.SwapOrder.values()) {
+            assertEquals(1, generator.generateSwaps(0, order, (i, j) -> fail("No swaps expected")),
+                order + ": empty input has one permutation");
+            assertEquals(1, generator.generateSwaps(1, order, (i, j) -> fail("No swaps expected")),
+                order + ": single position has one permutation");
+            assertEquals(40320, generator.generateSwaps(8, order, (i, j) -> { }),
+                order + ": should count 8! permutations");
+        }
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> generator.generateSwaps(-1, StringPermutations.SwapOrder.HEAP, (i, j) -> { }),
+            "Negative length should be rejected");
+        assertThrows(IllegalArgumentException.class,
+            () -> generator.generateSwaps(3, null, (i, j) -> { }), "Null order should be rejected");
+    }
+    
+    // ==================== k-Permutation and Combination Tests ====================
+    
+    @Test
+    @DisplayName("Test k-permutations count and order")
+    void testKPermutations() {
+        StringPermutations generator = new StringPermutations(true);
+        List<String> result = generator.generateKPermutations("DCBA", 2);
+        
+        assertEquals(12, result.size(), "4P2 = 12");
+        assertEquals(Arrays.asList("AB", "AC", "AD", "BA"), result.subList(0, 4),
+            "Should be in lexicographic order");
+        assertEquals(12, new HashSet<>(result).size(), "Distinct characters give distinct results");
+        assertEquals(generator.generatePermutationsLexicographic("ABCD"),
+            generator.generateKPermutations("ABCD", 4), "k = n should give all permutations");
+        assertEquals(Arrays.asList(""), generator.generateKPermutations("ABC", 0),
+            "k = 0 should give one empty arrangement");
+    }
+    
+    @Test
+    @DisplayName("Test k-permutations honour includeDuplicates")
+    void testKPermutationsDuplicates() {
+        List<String> withDuplicates = new StringPermutations(true).generateKPermutations("AAB", 2);
+        List<String> unique = new StringPermutations(false).generateKPermutations("AAB", 2);
+        
+        assertEquals(6, withDuplicates.size(), "3P2 = 6 when positions are permuted");
+        assertEquals(Arrays.asList("AA", "AB", "BA"), unique, "Distinct arrangements only");
+        assertEquals(new ArrayList<>(new LinkedHashSet<>(withDuplicates)), unique,
+            "Unique mode should equal de-duplicated output");
+    }
+    
+    @Test
+    @DisplayName("Test k-permutations with duplicates stay in string order")
+    void testKPermutationsDuplicatesOrder() {
+        StringPermutations generator = new StringPermutations(true);
+        List<String> result = generator.generateKPermutations("BABA", 2);
+        
+        assertEquals(Arrays.asList("AA", "AA", "AB", "AB", "AB", "AB", "BA", "BA", "BA", "BA", "BB", "BB"),
+            result, "Equal arrangements should be adjacent, in lexicographic order");
+        
+        List<String> longer = generator.generateKPermutations("AABBBC", 4);
+        List<String> sorted = new ArrayList<>(longer);
+        Collections.sort(sorted);
+        assertEquals(360, longer.size(), "6P4 = 360 when positions are permuted");
+        assertEquals(sorted, longer, "Output should already be sorted");
+    }
+    
+    @Test
+    @DisplayName("Test combinations count, order and duplicates")
+    void testCombinations() {
+        assertEquals(Arrays.asList("AB", "AC", "AD", "BC", "BD", "CD"),
+            new StringPermutations(true).generateCombinations("DCBA", 2), "4C2 in lexicographic order");
+        assertEquals(10, new StringPermutations(true).generateCombinations("AABBC", 3).size(),
+            "5C3 = 10 when positions are chosen");
+        assertEquals(Arrays.asList("AAB", "AAC", "ABB", "ABC", "BBC"),
+            new StringPermutations(false).generateCombinations("AABBC", 3),
+            "Each distinct sub-multiset should appear once");
+        assertEquals(Arrays.asList(""), new StringPermutations(false).generateCombinations("AB", 0),
+            "k = 0 should give the empty combination");
+        assertEquals(Arrays.asList("AB"), new StringPermutations(false).generateCombinations("BA", 2),
+            "k = n should give the whole sorted string");
+    }
+    
+    @Test
+    @DisplayName("Test selection generators are lazy and validate k")
+    void testSelectionIteratorsLazyAndValidated() {
+        StringPermutations generator = new StringPermutations(true);
+        
+        // 20P3 = 6840 and 20C3 = 1140 are produced without building 20! permutations
+        Iterator<String> permutations = generator.kPermutationIterator("ABCDEFGHIJKLMNOPQRST", 3);
+        int count = 0;
+        while (permutations.hasNext()) {
+            permutations.next();
+            count++;
+        }
+        assertEquals(6840, count, "20P3 = 6840");
+        assertEquals(1140, generator.generateCombinations("ABCDEFGHIJKLMNOPQRST", 3).size(), "20C3 = 1140");
+        
+        assertThrows(IllegalArgumentException.class, () -> generator.generateKPermutations("AB", 3),
+            "k larger than the length should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> generator.generateCombinations("AB", -1),
+            "Negative k should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> generator.combinationIterator(null, 0),
+            "Null input should be rejected");
+    }
+    
+    // ==================== Unicode Unit Tests ====================
+    
+    @Test
+    @DisplayName("Test code point permutations keep surrogate pairs intact")
+    void testCodePointPermutations() {
+        String input = "a😀b";  // a, grinning face (surrogate pair), b
+        StringPermutations generator = new StringPermutations(true);
+        
+        List<String> byChar = generator.generatePermutations(input, StringPermutations.TextUnit.CHAR);
+        assertEquals(24, byChar.size(), "Char mode permutes 4 UTF-16 units");
+        assertTrue(byChar.stream().anyMatch(p -> !isWellFormed(p)), "Char mode splits surrogates");
+        
+        List<String> byCodePoint = generator.generatePermutations(input, StringPermutations.TextUnit.CODE_POINT);
+        assertEquals(6, byCodePoint.size(), "Three code points give 3! permutations");
+        assertTrue(byCodePoint.stream().allMatch(this::isWellFormed), "Every result should be well-formed");
+        assertTrue(byCodePoint.contains("😀ba"), "Emoji should move as one unit");
+    }
+    
+    @Test
+    @DisplayName("Test grapheme permutations keep combining marks attached")
+    void testGraphemePermutations() {
+        String input = "éx";  // e + combining acute accent, x
+        StringPermutations generator = new StringPermutations(true);
+        
+        assertEquals(6, generator.generatePermutations(input, StringPermutations.TextUnit.CODE_POINT).size(),
+            "Code point mode separates the accent");
+        assertEquals(Arrays.asList("éx", "xé"),
+            generator.generatePermutations(input, StringPermutations.TextUnit.GRAPHEME),
+            "Grapheme mode should move the accented letter as one unit");
+    }
+    
+    @Test
+    @DisplayName("Test unit permutations agree with the char algorithms on simple input")
+    void testUnitPermutationsFastPaths() {
+        StringPermutations generator = new StringPermutations(false);
+        
+        // Latin-1 (byte[] path) and BMP (char[] path) inputs
+        for (String input : Arrays.asList("ABCA", "été", "中文字")) {
+            List<String> expected = generator.generatePermutationsIterative(input);
+            for (StringPermutations.TextUnit unit : StringPermutations.TextUnit.values()) {
+                assertEquals(expected, generator.generatePermutations(input, unit),
+                    unit + " mode should match the iterative order for " + input);
+            }
+        }
+        assertEquals(Arrays.asList(""), generator.generatePermutations("", StringPermutations.TextUnit.GRAPHEME),
+            "Empty input should give one empty permutation");
+        assertThrows(IllegalArgumentException.class,
+            () -> generator.generatePermutations(null, StringPermutations.TextUnit.CHAR),
+            "Null input should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> generator.generatePermutations("ab", null),
+            "Null unit should be rejected");
+    }
+    
+    /**
+     * Checks that a string has no unpaired surrogates
+     */
+    private boolean isWellFormed(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (Character.isHighSurrogate(c)) {
+                if (i + 1 >= str.length() || !Character.isLowSurrogate(str.charAt(i + 1))) {
+                    return false;
+                }
+                i++;
+            } else if (Character.isLowSurrogate(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // ==================== Latin-1 Byte Output Tests ====================
+    
+    @Test
+    @DisplayName("Test Latin-1 stream output matches the iterative algorithm")
+    void testLatin1StreamOutput() throws java.io.IOException {
+        StringPermutations generator = new StringPermutations(true);
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        
+        long count = generator.writePermutationsLatin1("ABCDé", out, new byte[] {'\n'});
+        
+        assertEquals(120, count, "Should write 5! permutations");
+        String text = new String(out.toByteArray(), java.nio.charset.StandardCharsets.ISO_8859_1);
+        assertEquals(generator.generatePermutationsIterative("ABCDé"), Arrays.asList(text.split("\n")),
+            "Records should follow the iterative order");
+    }
+    
+    @Test
+    @DisplayName("Test Latin-1 output of distinct permutations without separators")
+    void testLatin1DistinctFixedWidth() {
+        StringPermutations generator = new StringPermutations(false);
+        byte[] bytes = generator.generatePermutationsLatin1("BAB", new byte[0]);
+        
+        assertEquals("ABBBABBBA", new String(bytes, java.nio.charset.StandardCharsets.ISO_8859_1),
+            "Distinct permutations should be written in lexicographic order as fixed-width records");
+        assertEquals(3, generator.countPermutations("BAB"), "3!/2! distinct permutations");
+        assertEquals(6, new StringPermutations(true).countPermutations("BAB"), "3! permutations");
+    }
+    
+    @Test
+    @DisplayName("Test Latin-1 ByteBuffer output and large streamed output")
+    void testLatin1ByteBufferAndChunking() throws java.io.IOException {
+        StringPermutations generator = new StringPermutations(true);
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocateDirect(6 * 4);
+        
+        assertEquals(6, generator.writePermutationsLatin1("xyz", buffer, new byte[] {','}), "3! records");
+        assertEquals(0, buffer.remaining(), "Buffer should be filled exactly");
+        assertThrows(IllegalArgumentException.class,
+            () -> generator.writePermutationsLatin1("xyz", java.nio.ByteBuffer.allocate(10), new byte[0]),
+            "Too small buffers should be rejected up front");
+        
+        // 8! records of 9 bytes span several 64 KB chunks
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        assertEquals(40320, generator.writePermutationsLatin1("ABCDEFGH", out, new byte[] {'\n'}), "8! records");
+        assertEquals(40320 * 9, out.size(), "Every record should be written once");
+    }
+    
+    @Test
+    @DisplayName("Test Latin-1 output rejects other input")
+    void testLatin1Validation() {
+        StringPermutations generator = new StringPermutations(true);
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> generator.generatePermutationsLatin1("aĀ", new byte[0]), "Non-Latin-1 input should be rejected");
+        assertThrows(IllegalArgumentException.class,
+            () -> generator.generatePermutationsLatin1(null, new byte[0]), "Null input should be rejected");
+        assertThrows(IllegalArgumentException.class,
+            () -> generator.countPermutations("ABCDEFGHIJKLMNOPQRSTU"), "21! does not fit in a long");
+        assertArrayEquals(new byte[0], generator.generatePermutationsLatin1("", new byte[0]),
+            "Empty input gives one empty record");
+    }
+    
+    // ==================== Off-Heap Store Tests ====================
+    
+    @Test
+    @DisplayName("Test off-heap store matches the in-memory generators")
+    void testOffHeapStoreMatchesGenerators() {
+        StringPermutations generator = new StringPermutations(true);
+        PermutationStore store = generator.storePermutations("abcde");
+        
+        List<String> stored = new ArrayList<>();
+        store.forEach(stored::add);
+        assertEquals(generator.generatePermutationsIterative("abcde"), stored,
+            "Latin-1 records should follow Heap's order of generatePermutationsIterative");
+        assertEquals(120, store.size(), "5! records");
+        assertEquals(120 * 5, store.getByteSize(), "One byte per Latin-1 character");
+        assertEquals(stored.get(77), store.get(77), "Random access should match sequential reading");
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(120), "Index past the end");
+        
+        StringPermutations distinct = new StringPermutations(false);
+        List<String> distinctStored = new ArrayList<>();
+        distinct.storePermutations("ααβ").forEach(distinctStored::add);
+        assertEquals(Arrays.asList("ααβ", "αβα", "βαα"), distinctStored,
+            "Non-Latin-1 input should be stored as UTF-16 distinct permutations in lexicographic order");
+    }
+    
+    @Test
+    @DisplayName("Test mapped store file can be reopened")
+    void testMappedStoreReopen() throws java.io.IOException {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("perms", ".store");
+        try {
+            StringPermutations generator = new StringPermutations(false);
+            List<String> expected = generator.generatePermutationsLexicographic("AABC");
+            try (PermutationStore written = generator.storePermutations("AABC", file)) {
+                assertEquals(12, written.size(), "4!/2! distinct records");
+            }
+            
+            try (PermutationStore read = PermutationStore.open(file)) {
+                assertEquals(4, read.getRecordLength(), "Record length should come from the header");
+                List<String> stored = new ArrayList<>();
+                read.forEach(stored::add);
+                assertEquals(expected, stored, "Reopened file should hold every record in order");
+            }
+            
+            java.nio.file.Files.write(file, new byte[] {1, 2, 3});
+            assertThrows(java.io.IOException.class, () -> PermutationStore.open(file),
+                "Files without a store header should be rejected");
+        } finally {
+            java.nio.file.Files.deleteIfExists(file);
+        }
+    }
+    
+    // ==================== Permutation Membership Tests ====================
+    
+    @Test
+    @DisplayName("Test isPermutation compares character counts")
+    void testIsPermutation() {
+        assertTrue(StringPermutations.isPermutation("listen", "silent"), "Anagrams are permutations");
+        assertFalse(StringPermutations.isPermutation("aab", "abb"), "Counts must match, not just characters");
+        assertFalse(StringPermutations.isPermutation("abc", "abcd"), "Lengths must match");
+        assertTrue(StringPermutations.isPermutation("", ""), "Empty string is its own permutation");
+        assertTrue(StringPermutations.isPermutation("αβγ", "γαβ"), "Non-Latin-1 input should use signatures");
+        assertFalse(StringPermutations.isPermutation("αβγ", "γαα"), "Non-Latin-1 counts must match");
+        assertThrows(IllegalArgumentException.class,
+            () -> StringPermutations.isPermutation(null, "a"), "Null input should be rejected");
+    }
+    
+    @Test
+    @DisplayName("Test lexicographic rank matches generated positions")
+    void testLexicographicRank() {
+        for (boolean includeDuplicates : new boolean[] {true, false}) {
+            StringPermutations generator = new StringPermutations(includeDuplicates);
+            List<String> ordered = generator.generatePermutationsLexicographic("BANANA");
+            for (String permutation : new LinkedHashSet<>(ordered)) {
+                assertEquals(ordered.indexOf(permutation), generator.lexicographicRank("BANANA", permutation),
+                    "Rank should be the first position of " + permutation);
+            }
+            assertEquals(-1, generator.lexicographicRank("BANANA", "BANANB"), "Non-permutations have no rank");
+        }
+        
+        StringPermutations distinct = new StringPermutations(false);
+        assertEquals(2432902008176639999L, distinct.lexicographicRank("ABCDEFGHIJKLMNOPQRST", "TSRQPONMLKJIHGFEDCBA"),
+            "The last of 20! permutations should be ranked without generating any");
+    }
+    
+    @Test
+    @DisplayName("Test anagram index groups words by signature")
+    void testAnagramIndex() {
+        AnagramIndex index = new AnagramIndex(Arrays.asList(
+            "listen", "silent", "enlist", "google", "inlets", "banana", "silent", "tinsel"));
+        
+        assertEquals(7, index.size(), "Duplicate words should be indexed once");
+        assertEquals(3, index.getGroupCount(), "Three distinct signatures");
+        assertEquals(Arrays.asList("listen", "silent", "enlist", "inlets", "tinsel"), index.anagramsOf("tsilen"),
+            "Every word that is a permutation of the input, in insertion order");
+        assertTrue(index.anagramsOf("apple").isEmpty(), "Unknown signatures have no anagrams");
+        assertFalse(index.add("google"), "Re-adding a word should report no change");
+        
+        index.add("ωψ");
+        assertEquals(Collections.singletonList("ωψ"), index.anagramsOf("ψω"), "Non-Latin-1 words should be indexed");
+        assertThrows(IllegalArgumentException.class, () -> index.add(null), "Null words should be rejected");
+    }
+    
+    // ==================== Cancellation and Progress Tests ====================
+    
+    @Test
+    @DisplayName("Test progress is reported against n!")
+    void testProgressReporting() {
+        StringPermutations generator = new StringPermutations(true);
+        List<long[]> reports = new ArrayList<>();
+        generator.setProgressListener((produced, total) -> reports.add(new long[] {produced, total}));
+        
+        List<String> result = generator.generatePermutationsIterative("ABCDEFG");
+        
+        assertEquals(5040 / StringPermutations.CHECK_INTERVAL + 1, reports.size(),
+            "One report per check interval plus a final one");
+        assertArrayEquals(new long[] {StringPermutations.CHECK_INTERVAL, 5040}, reports.get(0),
+            "Reports should carry the count so far and the n! total");
+        assertArrayEquals(new long[] {result.size(), 5040}, reports.get(reports.size() - 1),
+            "The final report should cover every permutation");
+    }
+    
+    @Test
+    @DisplayName("Test cancellation stops long generations")
+    void testCancellation() {
+        StringPermutations generator = new StringPermutations(false);
+        long[] produced = new long[1];
+        generator.setProgressListener((count, total) -> produced[0] = count);
+        generator.setCancellation(() -> produced[0] >= 3 * StringPermutations.CHECK_INTERVAL);
+        
+        // 14! permutations would never finish; the run stops at the first check after the condition holds
+        assertThrows(java.util.concurrent.CancellationException.class,
+            () -> generator.writePermutationsLatin1("ABCDEFGHIJKLMN", java.io.OutputStream.nullOutputStream(), new byte[0]),
+            "Cancelled runs should throw CancellationException");
+        assertEquals(3 * StringPermutations.CHECK_INTERVAL, produced[0], "Cancellation is checked every interval");
+        
+        generator.setCancellation(null);
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(java.util.concurrent.CancellationException.class,
+                () -> generator.generatePermutationsRecursive("ABCDEFGHIJ"), "Interrupted threads should stop");
+            assertTrue(Thread.interrupted(), "The interrupt status should be preserved");
+        } finally {
+            Thread.interrupted();
+        }
+    }
+    
+    @Test
+    @DisplayName("Test timeout bounds a generation")
+    void testTimeout() {
+        StringPermutations generator = new StringPermutations(true);
+        generator.setTimeout(50);
+        
+        long start = System.nanoTime();
+        assertThrows(java.util.concurrent.CancellationException.class,
+            () -> generator.writePermutationsLatin1("ABCDEFGHIJKLMN", java.io.OutputStream.nullOutputStream(), new byte[0]),
+            "Runs past the timeout should be stopped");
+        assertTrue(System.nanoTime() - start < 5_000_000_000L, "The run should stop soon after the timeout");
+        assertThrows(IllegalArgumentException.class, () -> generator.setTimeout(-1),
+            "Negative timeouts should be rejected");
+        
+        generator.setTimeout(0);
+        assertEquals(24, generator.generatePermutationsRecursive("ABCD").size(), "No timeout once cleared");
+    }
+    
+    // ==================== Batch Delivery Tests ====================
+    
+    @Test
+    @DisplayName("Test batches hold every permutation as fixed-width records")
+    void testPermutationBatches() {
+        for (boolean includeDuplicates : new boolean[] {true, false}) {
+            StringPermutations generator = new StringPermutations(includeDuplicates);
+            List<String> delivered = new ArrayList<>();
+            List<Integer> counts = new ArrayList<>();
+            
+            // Room for 7 records of 5 chars, plus a spare char that stays unused
+            long total = generator.generatePermutationBatches("ABCAD", new char[36], (batch, count) -> {
+                counts.add(count);
+                for (int r = 0; r < count; r++) {
+                    delivered.add(new String(batch, r * 5, 5));
+                }
+                return batch;
+            });
+            
+            List<String> expected = includeDuplicates
+                ? generator.generatePermutationsIterative("ABCAD")
+                : generator.generatePermutationsLexicographic("ABCAD");
+            assertEquals(expected, delivered, "Batches should follow the matching generator's order");
+            assertEquals(expected.size(), total, "Every permutation should be counted");
+            assertEquals(7, (int) counts.get(0), "Blocks should be filled with whole records");
+            assertTrue(counts.subList(0, counts.size() - 1).stream().allMatch(c -> c == 7),
+                "Only the last block may be partly filled");
+        }
+    }
+    
+    @Test
+    @DisplayName("Test batch blocks can be handed off and replaced")
+    void testPermutationBatchHandOff() {
+        StringPermutations generator = new StringPermutations(true);
+        Set<char[]> blocks = Collections.newSetFromMap(new IdentityHashMap<>());
+        
+        long total = generator.generatePermutationBatches("ABCD", new char[4 * 4], (batch, count) -> {
+            blocks.add(batch);
+            return new char[4 * 4];
+        });
+        
+        assertEquals(24, total, "4! permutations");
+        assertEquals(6, blocks.size(), "Each full block should be a fresh array once handed off");
+        assertThrows(IllegalArgumentException.class,
+            () -> generator.generatePermutationBatches("ABCD", new char[3], (batch, count) -> batch),
+            "Blocks smaller than one record should be rejected");
+        assertThrows(IllegalStateException.class,
+            () -> generator.generatePermutationBatches("ABCD", new char[4], (batch, count) -> new char[2]),
+            "Listeners returning undersized blocks should be rejected");
+    }
+    
+    // ==================== Concurrent Pipeline Tests ====================
+    
+    @Test
+    @DisplayName("Test pipeline delivers every permutation exactly once")
+    void testPipelineDeliversEveryPermutation() {
+        for (boolean includeDuplicates : new boolean[] {true, false}) {
+            StringPermutations generator = new StringPermutations(includeDuplicates);
+            java.util.concurrent.ConcurrentHashMap<String, Integer> seen = new java.util.concurrent.ConcurrentHashMap<>();
+            
+            long processed = generator.processPermutationsPipelined("ABCDEFGA",
+                permutation -> seen.merge(permutation, 1, Integer::sum), 3, 4, 8);
+            
+            Map<String, Integer> expected = new HashMap<>();
+            for (String permutation : generator.generatePermutationsIterative("ABCDEFGA")) {
+                expected.merge(permutation, 1, Integer::sum);
+            }
+            assertEquals(expected, seen, "Every permutation should be processed as often as it is generated");
+            assertEquals(includeDuplicates ? 40320 : 20160, processed, "Processed count should match");
+        }
+        
+        StringPermutations generator = new StringPermutations(true);
+        List<String> single = Collections.synchronizedList(new ArrayList<>());
+        assertEquals(1, generator.processPermutationsPipelined("x", single::add, 2, 2, 4), "One permutation");
+        assertEquals(Collections.singletonList("x"), single, "Single characters pass through whole");
+        assertThrows(IllegalArgumentException.class,
+            () -> generator.processPermutationsPipelined("ab", p -> { }, 0, 1, 4), "Thread counts must be positive");
+    }
+    
+    @Test
+    @DisplayName("Test pipeline memory stays bounded under backpressure")
+    void testPipelineBackpressure() {
+        PermutationPipeline pipeline = new PermutationPipeline(true, 2, 2, 4, null);
+        java.util.concurrent.atomic.LongAdder count = new java.util.concurrent.atomic.LongAdder();
+        
+        // Slow workers: producers must wait for room in the ring
+        long processed = pipeline.run("ABCDEFG", permutation -> {
+            if (permutation.endsWith("G")) {
+                java.util.concurrent.locks.LockSupport.parkNanos(20_000);
+            }
+            count.increment();
+        });
+        
+        assertEquals(5040, processed, "7! permutations");
+        assertEquals(5040, count.sum(), "Every permutation should reach a worker");
+        assertTrue(pipeline.getProducerStalls() > 0, "Producers should have been held back");
+        assertTrue(pipeline.getBlocksAllocated() <= pipeline.getRingCapacity() + 2 + 2,
+            "Blocks should be recycled: " + pipeline.getBlocksAllocated() + " allocated");
+    }
+    
+    @Test
+    @DisplayName("Test pipeline stops on worker failure and cancellation")
+    void testPipelineFailureAndCancellation() {
+        StringPermutations generator = new StringPermutations(true);
+        
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+            () -> generator.processPermutationsPipelined("ABCDEFGHIJKL", permutation -> {
+                throw new IllegalStateException("score failed");
+            }, 2, 2, 4), "Worker failures should be rethrown");
+        assertEquals("score failed", failure.getMessage(), "The worker's own exception should surface");
+        
+        // A producer still busy when a worker fails must stop before run rethrows
+        java.util.concurrent.CountDownLatch busy = new java.util.concurrent.CountDownLatch(1);
+        java.util.concurrent.atomic.AtomicBoolean slowed = new java.util.concurrent.atomic.AtomicBoolean();
+        java.util.concurrent.atomic.AtomicInteger producing = new java.util.concurrent.atomic.AtomicInteger();
+        // The ring must hold the CHECK_INTERVAL permutations produced before the first check
+        PermutationPipeline pipeline = new PermutationPipeline(true, 2, 2, 64, () -> {
+            if (slowed.compareAndSet(false, true)) {
+                producing.incrementAndGet();
+                busy.countDown();
+                long deadline = System.nanoTime() + 300_000_000L;
+                while (System.nanoTime() < deadline) {
+                    Thread.yield();
+                }
+                producing.decrementAndGet();
+            }
+            return false;
+        });
+        assertThrows(IllegalStateException.class, () -> pipeline.run("ABCDEFGH", permutation -> {
+            try {
+                busy.await(1, java.util.concurrent.TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("score failed");
+        }), "Worker failures should be rethrown");
+        assertEquals(0, producing.get(), "No producer should still be running after run rethrows");
+        
+        generator.setTimeout(50);
+        assertThrows(java.util.concurrent.CancellationException.class,
+            () -> generator.processPermutationsPipelined("ABCDEFGHIJKLMN", permutation -> { }, 2, 2, 16),
+            "14! permutations should be stopped by the timeout");
+    }
+    
+    @Test
+    @DisplayName("Test ring buffer is bounded and first-in first-out")
+    void testRingBuffer() throws InterruptedException {
+        PermutationRingBuffer<Integer> ring = new PermutationRingBuffer<>(3);
+        assertEquals(4, ring.capacity(), "Capacity should round up to a power of two");
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i), "Offers within capacity should succeed");
+        }
+        assertFalse(ring.offer(4), "Offers to a full ring should fail");
+        assertEquals(0, ring.poll(), "Elements leave in insertion order");
+        assertTrue(ring.offer(4), "A freed slot should be reusable");
+        
+        // Two producers and two consumers exchange 40000 elements
+        PermutationRingBuffer<Integer> shared = new PermutationRingBuffer<>(16);
+        java.util.concurrent.atomic.AtomicLong sum = new java.util.concurrent.atomic.AtomicLong();
+        java.util.concurrent.atomic.AtomicInteger taken = new java.util.concurrent.atomic.AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < 2; p++) {
+            threads.add(new Thread(() -> {
+                for (int i = 1; i <= 20_000; i++) {
+                    while (!shared.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+            threads.add(new Thread(() -> {
+                while (taken.get() < 40_000) {
+                    Integer value = shared.poll();
+                    if (value != null) {
+                        sum.addAndGet(value);
+                        taken.incrementAndGet();
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(30_000);
+        }
+        assertEquals(40_000, taken.get(), "Every element should be taken once");
+        assertEquals(2L * 20_000 * 20_001 / 2, sum.get(), "No element should be lost or duplicated");
+    }
 }
\ No newline at end of file